@@ -0,0 +1,40 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.FullStackExample.apiFullStackExample.ApiFullStackExampleApplication;
+import com.FullStackExample.apiFullStackExample.service.BookSearchIndex;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Starts the application on the embedded database of the jmh profile (src/jmh/resources)
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(boolean inMemoryIndex) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiFullStackExampleApplication.class)
+                .profiles("jmh")
+                .properties("books.search.in-memory.enabled=" + inMemoryIndex)
+                .run();
+        if (inMemoryIndex) {
+            awaitIndex(context.getBean(BookSearchIndex.class));
+        }
+        return context;
+    }
+
+    // The index is loaded in the background after startup
+    private static void awaitIndex(BookSearchIndex searchIndex) {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (!searchIndex.isReady()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Search index was not loaded within 60 s");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
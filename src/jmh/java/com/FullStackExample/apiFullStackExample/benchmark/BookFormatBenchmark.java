@@ -0,0 +1,106 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Encode time of a 100k-book response in each response format (see ContentFormatConfig), without and with
+// gzip at the levels GzipResponseFilter can use. The body is written to a counting stream, as it is to the
+// response, and the payload size of each combination is printed once per fork
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookFormatBenchmark {
+
+    private static final int BOOKS = 100_000;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    // "none", or gzip with the given Deflater level
+    @Param({"none", "gzip-1", "gzip-6"})
+    private String compression;
+
+    private ObjectMapper objectMapper;
+    private int gzipLevel;
+    private List<BookDTO> bookList;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        gzipLevel = compression.equals("none") ? -1 : Integer.parseInt(compression.substring("gzip-".length()));
+
+        bookList = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            bookList.add(new BookDTO((long) i, "Book title number " + i, "Author " + (i % 500),
+                    1900 + i % 125, "Category " + (i % 12), (long) (i % 3)));
+        }
+        System.out.printf("%n%s/%s payload: %,d bytes%n", format, compression, encode());
+    }
+
+    @Benchmark
+    public long encodeBookList() throws IOException {
+        return encode();
+    }
+
+    private long encode() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        if (gzipLevel < 0) {
+            objectMapper.writeValue(counter, bookList);
+        } else {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(counter, 8192) {
+                {
+                    def.setLevel(gzipLevel);
+                }
+            }) {
+                objectMapper.writeValue(gzip, bookList);
+            }
+        }
+        return counter.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON serialization of book lists as Spring MVC writes them in responses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookJsonBenchmark {
+
+    // A search result page, and a large listing
+    @Param({"50", "1000"})
+    private int books;
+
+    private ObjectMapper objectMapper;
+    private List<BookDTO> bookList;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        bookList = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            bookList.add(new BookDTO((long) i, "Book title number " + i, "Author " + (i % 100),
+                    1900 + i % 125, "Category " + (i % 12)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBookList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookList);
+    }
+}
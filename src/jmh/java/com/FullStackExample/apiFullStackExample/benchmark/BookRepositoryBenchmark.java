@@ -0,0 +1,81 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// BookRepository queries against the embedded H2 catalog of the jmh profile (20,000 books)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookRepositoryBenchmark {
+
+    private static final int BOOKS = 20_000;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(false);
+        bookRepository = context.getBean(BookRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // Walk the ids with a stride so consecutive calls do not hit the same rows
+    private long nextId() {
+        nextId = (nextId + 7_919) % BOOKS;
+        return nextId + 1;
+    }
+
+    @Benchmark
+    public Optional<BookDTO> findBookById() {
+        return bookRepository.findBookById(nextId());
+    }
+
+    @Benchmark
+    public List<BookDTO> keysetPage() {
+        return bookRepository.findPageAfterId(nextId(), Limit.of(50));
+    }
+
+    @Benchmark
+    public List<BookDTO> findByCategory() {
+        return bookRepository.findByCategory("Category 7");
+    }
+
+    @Benchmark
+    public List<BookDTO> findByTitleContaining() {
+        return bookRepository.findByTitleContainingIgnoreCase("a1b");
+    }
+
+    @Benchmark
+    public List<BookDTO> searchByAuthorAndCategory() {
+        return bookRepository.search(new BookSearchCriteria(null, "author 42", "Category 7", null, null, null),
+                Limit.of(100));
+    }
+}
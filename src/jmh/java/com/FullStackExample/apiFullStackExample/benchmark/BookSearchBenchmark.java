@@ -0,0 +1,72 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.FullStackExample.apiFullStackExample.controller.BookController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// BookController.searchBooks end to end below the HTTP layer, answered from the in-memory index
+// or from the database queries it falls back to
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchBenchmark {
+
+    @Param({"index", "database"})
+    private String source;
+
+    private ConfigurableApplicationContext context;
+    private BookController bookController;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("index".equals(source));
+        bookController = context.getBean(BookController.class);
+
+        // The controller turns failures into empty 500 responses, which would be measured as fast searches
+        for (ResponseEntity<?> response : List.of(searchByTitle(), searchByAuthorAndCategory(),
+                searchByYearRange())) {
+            if (!response.getStatusCode().is2xxSuccessful() || !(response.getBody() instanceof List<?> books) || books.isEmpty()) {
+                throw new IllegalStateException("Search returned " + response.getStatusCode()
+                        + " with " + response.getBody());
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> searchByTitle() {
+        return bookController.searchBooks("a1", null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> searchByAuthorAndCategory() {
+        return bookController.searchBooks(null, "author 42", "Category 7", null, null, null, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> searchByYearRange() {
+        return bookController.searchBooks(null, null, null, null, 1990, 1992, null);
+    }
+}
@@ -0,0 +1,41 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Stand-ins for PostgreSQL functions used by BookRepository, registered as H2 aliases in jmh-data.sql
+public final class H2Functions {
+
+    private H2Functions() {
+    }
+
+    // pg_trgm similarity: shared trigrams over all trigrams of both strings, words padded like pg_trgm
+    public static double similarity(String a, String b) {
+        if (a == null || b == null) {
+            return 0;
+        }
+        Set<String> left = trigrams(a);
+        Set<String> right = trigrams(b);
+        if (left.isEmpty() || right.isEmpty()) {
+            return 0;
+        }
+        int union = left.size() + right.size();
+        left.retainAll(right);
+        return (double) left.size() / (union - left.size());
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,46 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.entity.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity <-> DTO mapping done for every book BookService returns or stores
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookConversionBenchmark {
+
+    private Book book;
+    private BookDTO bookDTO;
+
+    @Setup
+    public void setUp() {
+        book = new Book("One Hundred Years of Solitude", "Gabriel García Márquez", 1967, "Novel");
+        book.setId(42L);
+        bookDTO = new BookDTO(42L, "One Hundred Years of Solitude", "Gabriel García Márquez", 1967, "Novel");
+    }
+
+    @Benchmark
+    public BookDTO convertToDTO() {
+        return BookService.convertToDTO(book);
+    }
+
+    @Benchmark
+    public Book convertToEntity() {
+        return BookService.convertToEntity(bookDTO);
+    }
+}
@@ -0,0 +1,103 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.benchmark.BenchmarkApplication;
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.entity.Book;
+import com.FullStackExample.apiFullStackExample.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Read paths before and after DTO projections: "entity" loads managed Book entities and copies them
+// with convertToDTO, as BookService used to; "projection" runs the BookRepository projection queries
+// in a read-only transaction, as BookService does now.
+// Run with ./gradlew jmh -Pjmh.includes=BookReadBenchmark -Pjmh.profilers=gc and compare gc.alloc.rate.norm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookReadBenchmark {
+
+    private static final int BOOKS = 20_000;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"entity", "projection"})
+    private String read;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private BookRepository bookRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(false);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        bookRepository = context.getBean(BookRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDTO> pageOfBooks() {
+        long afterId = (nextId = (nextId + 7_919) % (BOOKS - PAGE_SIZE));
+        if ("entity".equals(read)) {
+            return withEntityManager(entityManager -> entityManager
+                    .createQuery("SELECT b FROM Book b WHERE b.id > :id ORDER BY b.id", Book.class)
+                    .setParameter("id", afterId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList());
+        }
+        return readOnlyTransaction.execute(status -> bookRepository.findPageAfterId(afterId, Limit.of(PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public List<BookDTO> booksInCategory() {
+        if ("entity".equals(read)) {
+            return withEntityManager(entityManager -> entityManager
+                    .createQuery("SELECT b FROM Book b WHERE b.category = :category", Book.class)
+                    .setParameter("category", "Category 7")
+                    .getResultList());
+        }
+        return readOnlyTransaction.execute(status -> bookRepository.findByCategory("Category 7"));
+    }
+
+    // The previous read path: a short-lived persistence context holding the entities, then a DTO copy
+    private List<BookDTO> withEntityManager(Function<EntityManager, List<Book>> query) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return query.apply(entityManager).stream()
+                    .map(BookService::convertToDTO)
+                    .toList();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
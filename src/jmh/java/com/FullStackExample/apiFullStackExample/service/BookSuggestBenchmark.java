@@ -0,0 +1,95 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.dto.BookSuggestionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// BookSearchIndex.suggest on a generated catalog: titles of made-up words, authors shared by several books.
+// A one-letter query opens the biggest subtree, a typo makes the trie walk every branch within one edit
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BookSuggestBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ra", "ten", "su", "vo", "ne", "dar", "bel",
+            "qui", "to", "san", "ge", "lu", "pa", "or", "fi", "mon", "te"};
+
+    @Param({"100000", "1000000"})
+    private int books;
+
+    private BookSearchIndex index;
+    private String word;
+    private String prefix;
+    private String typo;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new BookSearchIndex(true);
+        for (int id = 1; id <= books; id++) {
+            String title = word(random) + " " + word(random) + " " + word(random);
+            String author = word(random) + " " + word(random) + " " + (id % (books / 5));
+            index.load(new BookDTO((long) id, title, author, 1900 + id % 120, "Category " + id % 50));
+        }
+        index.markReady();
+
+        // The second word of a title, its first four letters, and its first six with two letters swapped
+        String sample = index.search(new BookSearchCriteria(null, null, null, null, null, null), 1).get(0).getTitle();
+        word = sample.split(" ")[1];
+        prefix = word.substring(0, Math.min(4, word.length()));
+        char[] letters = word.substring(0, Math.min(6, word.length())).toCharArray();
+        char swapped = letters[1];
+        letters[1] = letters[2];
+        letters[2] = swapped;
+        typo = new String(letters);
+        if (suggestExactWord().isEmpty() || suggestTypo().isEmpty()) {
+            throw new IllegalStateException("No suggestions for " + word + " or " + typo);
+        }
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + random.nextInt(3); i > 0; i--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    @Benchmark
+    public List<BookSuggestionDTO> suggestOneLetter() {
+        return index.suggest("k", null, 10);
+    }
+
+    @Benchmark
+    public List<BookSuggestionDTO> suggestPrefix() {
+        return index.suggest(prefix, null, 10);
+    }
+
+    @Benchmark
+    public List<BookSuggestionDTO> suggestExactWord() {
+        return index.suggest(word, BookSearchIndex.TITLE, 10);
+    }
+
+    @Benchmark
+    public List<BookSuggestionDTO> suggestTypo() {
+        return index.suggest(typo, null, 10);
+    }
+}
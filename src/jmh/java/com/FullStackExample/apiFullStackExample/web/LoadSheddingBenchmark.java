@@ -0,0 +1,58 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Overhead LoadSheddingFilter adds to every admitted request: a token from the client's bucket, then
+// acquiring and releasing the concurrency limit, with 8 threads at once. "1" client puts every thread on
+// the same bucket (worst case contention), "10000" spreads them as real traffic would.
+// Limits are high enough that nothing is rejected. Run with ./gradlew jmh -Pjmh.includes=LoadSheddingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class LoadSheddingBenchmark {
+
+    @Param({"1", "10000"})
+    private int clients;
+
+    private ClientRateLimiter rateLimiter;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private String[] clientKeys;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new ClientRateLimiter(1e9, 1_000_000_000, 100_000);
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(1000, 1, 1000, TimeUnit.SECONDS.toNanos(1), () -> 0);
+        clientKeys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientKeys[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public boolean admitRequest() {
+        String client = clientKeys[ThreadLocalRandom.current().nextInt(clients)];
+        if (rateLimiter.tryAcquire(client) > 0 || !concurrencyLimiter.tryAcquire()) {
+            return false;
+        }
+        concurrencyLimiter.release(1_000);
+        return true;
+    }
+}
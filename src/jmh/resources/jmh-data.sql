@@ -0,0 +1,15 @@
+-- PostgreSQL functions used by BookRepository
+CREATE ALIAS IF NOT EXISTS similarity FOR 'com.FullStackExample.apiFullStackExample.benchmark.H2Functions.similarity';
+
+-- 20,000 synthetic books: hex titles, 500 authors, 12 categories, 125 publication years
+INSERT INTO book (id, title, author, publication_year, category, version)
+SELECT x,
+       'Book ' || SUBSTRING(RAWTOHEX(HASH('SHA-256', CAST(x AS VARCHAR))), 1, 12),
+       'Author ' || MOD(x, 500),
+       1900 + MOD(x, 125),
+       'Category ' || MOD(x, 12),
+       0
+FROM SYSTEM_RANGE(1, 20000);
+
+-- New ids start after the seeded ones
+ALTER SEQUENCE book_id_seq RESTART WITH 20001;
@@ -0,0 +1,91 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+// The book-by-id cache. A miss stores what it read once the read returns, which can be after a write stored a
+// newer version or after the book was deleted; that older value would then be served for the whole TTL.
+// Puts therefore keep the higher version, and evicting a book (a delete) leaves a tombstone: the id reads as
+// missing, and books read before the delete are not stored again
+class BookByIdCache extends CaffeineCache {
+
+    private static final Object DELETED = new Object();
+
+    BookByIdCache(String name, Cache<Object, Object> cache) {
+        super(name, cache, true);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        return value == DELETED ? NullValue.INSTANCE : value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            T value = (T) cached.get();
+            return value;
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        getNativeCache().asMap().merge(key, toStoreValue(value), BookByIdCache::newest);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = getNativeCache().asMap().putIfAbsent(key, toStoreValue(value));
+        if (existing == null) {
+            return null;
+        }
+        return existing == DELETED ? new SimpleValueWrapper(null) : toValueWrapper(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        getNativeCache().put(key, DELETED);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        Object previous = getNativeCache().asMap().put(key, DELETED);
+        return previous != null && previous != DELETED;
+    }
+
+    // Ids are never reused, so nothing read for a deleted id replaces its tombstone. A book only goes away
+    // through a delete: a "not found" read before it was created does not replace it either
+    private static Object newest(Object current, Object offered) {
+        if (current == DELETED) {
+            return current;
+        }
+        if (current instanceof BookDTO cached) {
+            if (offered instanceof BookDTO book) {
+                return isOlder(book, cached) ? current : offered;
+            }
+            return current;
+        }
+        return offered;
+    }
+
+    // Books without a version (not read from the database) are never older
+    private static boolean isOlder(BookDTO book, BookDTO other) {
+        return book.getVersion() != null && other.getVersion() != null && book.getVersion() < other.getVersion();
+    }
+}
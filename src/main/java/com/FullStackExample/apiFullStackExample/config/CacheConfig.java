@@ -0,0 +1,58 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Single books by id
+    public static final String BOOK_BY_ID = "bookById";
+
+    // Distinct category and author lists
+    public static final String BOOK_CATEGORIES = "bookCategories";
+    public static final String BOOK_AUTHORS = "bookAuthors";
+
+    // Bounded Caffeine caches; hit/miss/eviction metrics are published by Actuator as cache.* meters
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${books.cache.book-by-id.maximum-size:10000}") long bookByIdMaximumSize,
+            @Value("${books.cache.book-by-id.ttl:10m}") Duration bookByIdTtl,
+            @Value("${books.cache.lists.ttl:10m}") Duration listsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            // Books by id are stored version-aware (see BookByIdCache)
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return BOOK_BY_ID.equals(name) ? new BookByIdCache(name, cache) : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        // Only the caches registered below exist
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(BOOK_BY_ID, Caffeine.newBuilder()
+                .maximumSize(bookByIdMaximumSize)
+                .expireAfterWrite(bookByIdTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(BOOK_CATEGORIES, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(listsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(BOOK_AUTHORS, Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(listsTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
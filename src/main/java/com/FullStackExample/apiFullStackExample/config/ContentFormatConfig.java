@@ -0,0 +1,50 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.FullStackExample.apiFullStackExample.metrics.TimedJackson2CborHttpMessageConverter;
+import com.FullStackExample.apiFullStackExample.metrics.TimedJackson2SmileHttpMessageConverter;
+import com.FullStackExample.apiFullStackExample.web.GzipResponseFilter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+// Response formats and compression.
+// Besides JSON, responses can be negotiated as CBOR (Accept: application/cbor) or Smile
+// (Accept: application/x-jackson-smile). The converters replace Spring's defaults in place, after
+// the JSON one, so Accept: */* still gets JSON. They use Spring Boot's ObjectMapper settings
+@Configuration
+public class ContentFormatConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder) {
+        return new TimedJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder) {
+        return new TimedJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "books.compression.enabled", havingValue = "true", matchIfMissing = true)
+    public GzipResponseFilter gzipResponseFilter(
+            @Value("${books.compression.min-response-size:2KB}") DataSize minResponseSize,
+            @Value("${books.compression.level:1}") int level,
+            @Value("${books.compression.mime-types:application/json,application/cbor,application/x-jackson-smile,application/x-ndjson,text/csv,text/plain}")
+            List<MediaType> mimeTypes) {
+        return new GzipResponseFilter((int) minResponseSize.toBytes(), level, mimeTypes);
+    }
+}
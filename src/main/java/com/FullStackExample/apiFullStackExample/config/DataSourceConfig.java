@@ -0,0 +1,92 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.FullStackExample.apiFullStackExample.datasource.ReadRouting;
+import com.FullStackExample.apiFullStackExample.datasource.ReplicaDataSource;
+import com.FullStackExample.apiFullStackExample.web.ReadRoutingFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read replicas, enabled by setting books.datasource.replicas.urls.
+// The application DataSource hands out connections lazily, on the first statement: read-only transactions
+// (@Transactional(readOnly = true) services and repository queries) then get one from ReplicaDataSource,
+// everything else from the primary pool. Without replicas Spring Boot configures the single pool as usual
+@Configuration
+@ConditionalOnProperty(name = "books.datasource.replicas.urls")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(
+            HikariDataSource primaryPool,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${books.datasource.replicas.urls}") List<String> urls,
+            @Value("${books.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${books.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${books.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${books.datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+            @Value("${books.datasource.replicas.retry-interval:10s}") Duration retryInterval) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (replicas.size() + 1));
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setDriverClassName(properties.determineDriverClassName());
+            pool.setMaximumPoolSize(maximumPoolSize);
+            pool.setConnectionTimeout(connectionTimeout.toMillis());
+            pool.setReadOnly(true);
+            // Start even when a replica is down: its reads go to the primary until it is back
+            pool.setInitializationFailTimeout(-1);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(pool.getPoolName(), pool);
+        }
+        return new ReplicaDataSource(primaryPool, replicas, retryInterval, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryPool, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryPool);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    // Spring Boot applies it to the application task executor, which runs the streamed responses (/stream,
+    // /export): they read with the request's routing, and the pooled thread does not keep it afterwards
+    @Bean
+    public TaskDecorator readRoutingTaskDecorator() {
+        return ReadRouting::propagate;
+    }
+
+    @Bean
+    public ReadRoutingFilter readRoutingFilter(
+            @Value("${books.datasource.read-your-writes-window:5s}") Duration window,
+            @Value("${books.datasource.read-only-paths:/api/books/batch-get}") List<String> readOnlyPaths) {
+        return new ReadRoutingFilter(window, readOnlyPaths);
+    }
+}
@@ -0,0 +1,22 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Flyway migrates the schema at startup unless spring.flyway.enabled=false. The switch is read again when the
+// migration runs: with -Dspring.aot.enabled=true the Flyway beans are fixed at build time, and the property
+// alone would not stop the CDS training run in the Dockerfile from connecting to a database
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${spring.flyway.enabled:true}") boolean enabled) {
+        return flyway -> {
+            if (enabled) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.FullStackExample.apiFullStackExample.web.AdaptiveConcurrencyLimiter;
+import com.FullStackExample.apiFullStackExample.web.ClientRateLimiter;
+import com.FullStackExample.apiFullStackExample.web.LoadSheddingFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+
+// Rate limiting and load shedding for the expensive endpoints (see LoadSheddingFilter).
+// Pool saturation is read from the (primary) Hikari pool: threads waiting for a connection shrink the limit.
+// The per-client rate limit is opt-in. Keyed by remote address it needs server.forward-headers-strategy set:
+// behind a proxy without it every client shares the proxy's bucket, so startup fails rather than guess
+@Configuration
+@ConditionalOnProperty(name = "books.load-shedding.enabled", havingValue = "true", matchIfMissing = true)
+public class LoadSheddingConfig {
+
+    private static final String FORWARD_HEADERS_STRATEGY = "server.forward-headers-strategy";
+
+    @Bean
+    public LoadSheddingFilter loadSheddingFilter(
+            MeterRegistry meterRegistry,
+            ObjectProvider<HikariDataSource> pool,
+            Environment environment,
+            @Value("${books.load-shedding.paths:/api/books/search,/api/books/facets}") List<String> paths,
+            @Value("${books.load-shedding.rate-limit.enabled:false}") boolean rateLimitEnabled,
+            @Value("${books.load-shedding.rate:20}") double rate,
+            @Value("${books.load-shedding.burst:40}") int burst,
+            @Value("${books.load-shedding.client-header:}") String clientHeader,
+            @Value("${books.load-shedding.tracked-clients:100000}") int trackedClients,
+            @Value("${books.load-shedding.target-latency:250ms}") Duration targetLatency,
+            @Value("${books.load-shedding.initial-limit:20}") int initialLimit,
+            @Value("${books.load-shedding.min-limit:2}") int minLimit,
+            @Value("${books.load-shedding.max-limit:100}") int maxLimit,
+            @Value("${books.load-shedding.retry-after:1s}") Duration retryAfter) {
+        if (rateLimitEnabled && clientHeader.isBlank() && !environment.containsProperty(FORWARD_HEADERS_STRATEGY)) {
+            throw new IllegalStateException("books.load-shedding.rate-limit.enabled keys clients by remote address: set "
+                    + FORWARD_HEADERS_STRATEGY + " (native or framework behind a proxy, none when clients connect "
+                    + "directly) or books.load-shedding.client-header");
+        }
+        HikariDataSource hikari = pool.getIfUnique();
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                initialLimit, minLimit, maxLimit, targetLatency.toNanos(), () -> threadsAwaitingConnection(hikari));
+        ClientRateLimiter rateLimiter = rateLimitEnabled ? new ClientRateLimiter(rate, burst, trackedClients) : null;
+        return new LoadSheddingFilter(rateLimiter, concurrencyLimiter, paths, clientHeader, retryAfter, meterRegistry);
+    }
+
+    // The pool starts on the first connection, until then nobody waits
+    private static int threadsAwaitingConnection(HikariDataSource hikari) {
+        HikariPoolMXBean poolBean = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        return poolBean != null ? poolBean.getThreadsAwaitingConnection() : 0;
+    }
+}
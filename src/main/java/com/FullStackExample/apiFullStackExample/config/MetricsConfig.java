@@ -0,0 +1,44 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.FullStackExample.apiFullStackExample.metrics.RequestMetricsFilter;
+import com.FullStackExample.apiFullStackExample.metrics.RequestSessionEventListener;
+import com.FullStackExample.apiFullStackExample.metrics.RequestStatementInspector;
+import com.FullStackExample.apiFullStackExample.metrics.TimedJackson2HttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.time.Duration;
+
+// Per-request database and serialization metrics (see the metrics package)
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public RequestMetricsFilter requestMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${books.metrics.slow-request-threshold:500ms}") Duration slowRequestThreshold,
+            @Value("${books.metrics.log-sample-rate:0.01}") double logSampleRate) {
+        return new RequestMetricsFilter(meterRegistry, slowRequestThreshold, logSampleRate);
+    }
+
+    // Statement counts and JDBC execution time from every Hibernate session
+    @Bean
+    public HibernatePropertiesCustomizer requestMetricsHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new RequestStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, RequestSessionEventListener.class.getName());
+        };
+    }
+
+    // Replaces Spring Boot's JSON converter, keeping its ObjectMapper
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJackson2HttpMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,150 @@
+package com.FullStackExample.apiFullStackExample.controller;
+
+import com.FullStackExample.apiFullStackExample.datasource.ReadRouting;
+import com.FullStackExample.apiFullStackExample.dto.BookChangeDTO;
+import com.FullStackExample.apiFullStackExample.exception.ChangeLogPrunedException;
+import com.FullStackExample.apiFullStackExample.service.BookChangeFeed;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Change log streams to replicas, as server-sent events or NDJSON. Each subscriber gets a virtual thread
+// that waits on the shared BookChangeFeed and writes each batch of changes with a single flush, so a
+// slow client only holds up its own stream. Streams end after the stream timeout; clients resume
+// from the last position they applied (Last-Event-ID or ?after=)
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class BookChangeStreams {
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeStreams.class);
+
+    // Changes written per flush
+    private static final int BATCH_SIZE = 500;
+
+    private final BookChangeFeed feed;
+    private final ObjectMapper objectMapper;
+    private final Duration heartbeatInterval;
+    private final Duration streamTimeout;
+    private final int maxSubscribers;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    BookChangeStreams(BookChangeFeed feed, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                      @Value("${books.changes.heartbeat-interval:15s}") Duration heartbeatInterval,
+                      @Value("${books.changes.stream-timeout:30m}") Duration streamTimeout,
+                      @Value("${books.changes.max-subscribers:10000}") int maxSubscribers) {
+        this.feed = feed;
+        this.objectMapper = objectMapper;
+        this.heartbeatInterval = heartbeatInterval;
+        this.streamTimeout = streamTimeout;
+        this.maxSubscribers = maxSubscribers;
+        Gauge.builder("books.changes.subscribers", subscribers, AtomicInteger::get)
+             .description("Open change log streams")
+             .register(meterRegistry);
+    }
+
+    // End the open streams on shutdown (their clients resume elsewhere)
+    @PreDestroy
+    void close() {
+        executor.shutdownNow();
+    }
+
+    // Start streaming the changes after the given position; null when all subscriber slots are taken
+    ResponseBodyEmitter open(long afterSeq, boolean serverSentEvents) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return null;
+        }
+        // The async request outlives the stream a little, so the stream always ends first
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeout.plus(heartbeatInterval).toMillis());
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+        // Catch-up reads follow the routing of the request (read-your-writes, see ReadRouting)
+        executor.execute(ReadRouting.propagate(() -> {
+            try {
+                stream(emitter, closed, afterSeq, serverSentEvents);
+            } finally {
+                subscribers.decrementAndGet();
+            }
+        }));
+        return emitter;
+    }
+
+    private void stream(ResponseBodyEmitter emitter, AtomicBoolean closed, long afterSeq, boolean serverSentEvents) {
+        long deadline = System.nanoTime() + streamTimeout.toNanos();
+        long cursor = afterSeq;
+        try {
+            // Sends the headers right away, so clients know the stream is open before the first change;
+            // EventSource clients are also told to reconnect quickly once the stream ends
+            emitter.send(serverSentEvents ? "retry: 1000\n\n" : "", MediaType.TEXT_PLAIN);
+            while (!closed.get() && System.nanoTime() - deadline < 0) {
+                List<BookChangeDTO> changes = feed.next(cursor, BATCH_SIZE, heartbeatInterval);
+                if (changes.isEmpty()) {
+                    // Keeps proxies from closing an idle stream and detects clients that went away
+                    if (serverSentEvents) {
+                        emitter.send(":\n\n", MediaType.TEXT_PLAIN);
+                    }
+                    continue;
+                }
+                emitter.send(format(changes, serverSentEvents), MediaType.TEXT_PLAIN);
+                cursor = changes.get(changes.size() - 1).getSeq();
+            }
+            emitter.complete();
+        } catch (ChangeLogPrunedException e) {
+            sendError(emitter, e.getMessage(), serverSentEvents);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away
+            emitter.completeWithError(e);
+        } catch (RuntimeException e) {
+            log.error("Change stream after {} failed", cursor, e);
+            sendError(emitter, "Change stream failed, resume after " + cursor, serverSentEvents);
+        }
+    }
+
+    // One SSE event per change (its id is the position) or one JSON line per change
+    private String format(List<BookChangeDTO> changes, boolean serverSentEvents) throws JsonProcessingException {
+        StringBuilder body = new StringBuilder(changes.size() * 200);
+        for (BookChangeDTO change : changes) {
+            String json = objectMapper.writeValueAsString(change);
+            if (serverSentEvents) {
+                body.append("id: ").append(change.getSeq()).append("\nevent: change\ndata: ").append(json).append("\n\n");
+            } else {
+                body.append(json).append('\n');
+            }
+        }
+        return body.toString();
+    }
+
+    private void sendError(ResponseBodyEmitter emitter, String message, boolean serverSentEvents) {
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("error", message));
+            emitter.send(serverSentEvents ? "event: error\ndata: " + json + "\n\n" : json + "\n", MediaType.TEXT_PLAIN);
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
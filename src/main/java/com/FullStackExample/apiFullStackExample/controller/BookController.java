@@ -1,91 +1,353 @@
 package com.FullStackExample.apiFullStackExample.controller;
 
+import com.FullStackExample.apiFullStackExample.dto.BookBatchGetResultDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookBatchResultDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookBatchUpdateDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookChangeDTO;
 import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookFacetsDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookIdsDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookImportResultDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookPageDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.dto.BookSuggestionDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookWriteStatusDTO;
+import com.FullStackExample.apiFullStackExample.exception.ChangeLogPrunedException;
+import com.FullStackExample.apiFullStackExample.exception.DuplicateBookException;
+import com.FullStackExample.apiFullStackExample.exception.StaleBookVersionException;
+import com.FullStackExample.apiFullStackExample.exception.SuggestionsUnavailableException;
+import com.FullStackExample.apiFullStackExample.exception.WriteQueueFullException;
+import com.FullStackExample.apiFullStackExample.service.BookChangeFeed;
+import com.FullStackExample.apiFullStackExample.service.BookExportService;
+import com.FullStackExample.apiFullStackExample.service.BookImportService;
 import com.FullStackExample.apiFullStackExample.service.BookService;
+import com.FullStackExample.apiFullStackExample.service.BookWrite;
+import com.FullStackExample.apiFullStackExample.web.GzipResponseFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/books")
 @CrossOrigin(origins = "*")
 @Tag(name = "Books", description = "API for library book management")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BookController {
     
+    private static final Logger log = LoggerFactory.getLogger(BookController.class);
+    
+    // Prefer header asking for a 202 instead of waiting for the write-behind commit (RFC 7240)
+    private static final String PREFER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+    
+    // Seconds a client should wait before retrying when the write queue or the change streams are full
+    private static final String RETRY_AFTER_SECONDS = "1";
+    
+    // Change log: page sizes, the header carrying the latest position, and the NDJSON media type
+    private static final int DEFAULT_CHANGES_LIMIT = 500;
+    private static final int MAX_CHANGES_LIMIT = 1000;
+    private static final String CHANGE_LOG_POSITION = "Change-Log-Position";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    
     @Autowired
     private BookService bookService;
     
+    @Autowired
+    private BookImportService bookImportService;
+    
+    @Autowired
+    private BookExportService bookExportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BookChangeFeed changeFeed;
+    
+    @Autowired
+    private BookChangeStreams changeStreams;
+    
     @GetMapping
     @Operation(summary = "Get all books", 
-               description = "Returns a list of all books registered in the library")
+               description = "Returns a list of all books registered in the library. " +
+                             "The ETag changes whenever the catalog changes; send it back in If-None-Match to get a 304. " +
+                             "Accept: application/cbor or application/x-jackson-smile returns a compact binary body. " +
+                             "For large catalogs use /export, which streams CSV or NDJSON")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "List of books retrieved successfully",
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = BookDTO.class))),
+        @ApiResponse(responseCode = "304", description = "The catalog has not changed since the given ETag"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
+    public ResponseEntity<List<BookDTO>> getAllBooks(
+            @Parameter(description = "ETag of a previously received list")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // Read before the books, so the ETag is never newer than the body
+            long catalogVersion = bookService.getCatalogVersion();
+            String matchingETag = BookETags.matchIfNoneMatch(ifNoneMatch, catalogVersion);
+            if (matchingETag != null) {
+                return BookETags.notModified(matchingETag);
+            }
             List<BookDTO> books = bookService.getAllBooks();
-            return ResponseEntity.ok(books);
+            return BookETags.ok(BookETags.of(catalogVersion), books);
         } catch (Exception e) {
+            log.error("getAllBooks failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of books", 
+               description = "Returns books ordered by ID using keyset pagination. " +
+                             "Pass the nextCursor of a page as the cursor of the next request. " +
+                             "The ETag changes whenever the catalog changes; send it back in If-None-Match to get a 304")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page of books retrieved successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookPageDTO.class))),
+        @ApiResponse(responseCode = "304", description = "The catalog has not changed since the given ETag"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getBooksPage(
+            @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of books to return (1-1000, default 50)", example = "50")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "ETag of a previously received page")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            long catalogVersion = bookService.getCatalogVersion();
+            String matchingETag = BookETags.matchIfNoneMatch(ifNoneMatch, catalogVersion);
+            if (matchingETag != null) {
+                return BookETags.notModified(matchingETag);
+            }
+            BookPageDTO page = bookService.getBooksPage(cursor, limit);
+            return BookETags.ok(BookETags.of(catalogVersion), page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("getBooksPage failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Internal server error");
+        }
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream all books", 
+               description = "Writes every book as a JSON array straight from a forward-only database cursor, " +
+                             "so memory use stays flat regardless of the catalog size")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Books streamed successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookDTO.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                bookService.streamAllBooks(book -> {
+                    try {
+                        generator.writeObject(book);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_JSON)
+                             .body(body);
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export books as CSV or NDJSON", 
+               description = "Writes every book, or the books matching the given filters (same as /search, without " +
+                             "a limit), in id order straight from a forward-only database cursor: memory use stays " +
+                             "flat regardless of the catalog size. CSV starts with a header line. " +
+                             "Send Accept-Encoding: gzip for a compressed body")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Books exported successfully",
+                    content = {@Content(mediaType = "text/csv"), @Content(mediaType = APPLICATION_NDJSON)}),
+        @ApiResponse(responseCode = "400", description = "Unknown format")
+    })
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @Parameter(description = "csv (default) or ndjson", example = "csv")
+            @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "Book title (partial match, case insensitive)")
+            @RequestParam(required = false) String title,
+            @Parameter(description = "Book author (partial match, case insensitive)")
+            @RequestParam(required = false) String author,
+            @Parameter(description = "Book category (exact match)")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Publication year")
+            @RequestParam(required = false) Integer publicationYear,
+            @Parameter(description = "Start year for range search")
+            @RequestParam(required = false) Integer startYear,
+            @Parameter(description = "End year for range search")
+            @RequestParam(required = false) Integer endYear) {
+        BookSearchCriteria criteria = new BookSearchCriteria(title, author, category, publicationYear,
+                                                             startYear, endYear);
+        boolean csv = format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+        StreamingResponseBody body = outputStream -> {
+            if (csv) {
+                bookExportService.exportCsv(criteria, outputStream);
+            } else {
+                bookExportService.exportNdjson(criteria, outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                             .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                                              : MediaType.parseMediaType(APPLICATION_NDJSON))
+                             .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                     .filename(csv ? "books.csv" : "books.ndjson")
+                                     .build()
+                                     .toString())
+                             .body(body);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Get book by ID", 
-               description = "Returns a specific book based on its unique ID")
+               description = "Returns a specific book based on its unique ID. " +
+                             "The ETag is the book version; send it back in If-None-Match to get a 304")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Book found successfully",
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = BookDTO.class))),
+        @ApiResponse(responseCode = "304", description = "The book has not changed since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Book not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<BookDTO> getBookById(
             @Parameter(description = "Unique ID of the book", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "ETag of a previously received version of the book")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Optional<BookDTO> book = bookService.getBookById(id);
-            return book.map(ResponseEntity::ok)
-                       .orElse(ResponseEntity.notFound().build());
+            if (book.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            long version = book.get().getVersion();
+            String matchingETag = BookETags.matchIfNoneMatch(ifNoneMatch, version);
+            if (matchingETag != null) {
+                return BookETags.notModified(matchingETag);
+            }
+            return BookETags.ok(BookETags.of(version), book.get());
         } catch (Exception e) {
+            log.error("getBookById failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
     @PostMapping
     @Operation(summary = "Create new book", 
-               description = "Creates a new book in the library with the provided data")
+               description = "Creates a new book in the library with the provided data. " +
+                             "In write-behind mode, Prefer: respond-async returns 202 before the book is committed")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Book created successfully",
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = BookDTO.class))),
-        @ApiResponse(responseCode = "400", description = "Invalid input data or book already exists"),
-        @ApiResponse(responseCode = "500", description = "Internal server error")
+        @ApiResponse(responseCode = "202", description = "Write queued, see the Location header for its status",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookWriteStatusDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid input data"),
+        @ApiResponse(responseCode = "409", description = "A book with the same title and author already exists"),
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "Too many pending writes, retry after the Retry-After delay")
     })
     public ResponseEntity<?> createBook(
             @Parameter(description = "Book data to create", required = true)
-            @Valid @RequestBody BookDTO bookDTO) {
+            @Valid @RequestBody BookDTO bookDTO,
+            @Parameter(description = "respond-async to get a 202 without waiting for the commit (write-behind mode)")
+            @RequestHeader(value = PREFER, required = false) String prefer) {
         try {
+            if (respondAsync(prefer)) {
+                return accepted(bookService.submitCreate(bookDTO));
+            }
             BookDTO newBook = bookService.createBook(bookDTO);
-            return ResponseEntity.status(HttpStatus.CREATED).body(newBook);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                                 .eTag(BookETags.of(newBook.getVersion()))
+                                 .varyBy(HttpHeaders.ACCEPT)
+                                 .body(newBook);
+        } catch (DuplicateBookException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (WriteQueueFullException e) {
+            return writeQueueFull(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
+            log.error("createBook failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Internal server error");
+        }
+    }
+    
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Bulk import books", 
+               description = "Streams books from an NDJSON body (one book object per line) or a CSV body " +
+                             "(header with title, author, publicationYear and category columns) and inserts them " +
+                             "in batches. Rows whose title and author already exist are skipped")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Books to import", required = true,
+            content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")})
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished, see the summary for skipped rows",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookImportResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid CSV header"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> importBooks(
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @Parameter(hidden = true) InputStream body) {
+        try {
+            boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+            BookImportResultDTO result = csv ? bookImportService.importCsv(body)
+                                             : bookImportService.importNdjson(body);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("importBooks failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body("Internal server error");
         }
@@ -93,29 +355,59 @@ public class BookController {
     
     @PutMapping("/{id}")
     @Operation(summary = "Update book", 
-               description = "Updates an existing book's data")
+               description = "Updates an existing book's data. With If-Match set to the ETag the book was read with, " +
+                             "the update only applies if nobody changed the book in between. " +
+                             "In write-behind mode, Prefer: respond-async returns 202 before the update is committed")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Book updated successfully",
                     content = @Content(mediaType = "application/json", 
                                      schema = @Schema(implementation = BookDTO.class))),
         @ApiResponse(responseCode = "400", description = "Invalid input data"),
         @ApiResponse(responseCode = "404", description = "Book not found"),
-        @ApiResponse(responseCode = "500", description = "Internal server error")
+        @ApiResponse(responseCode = "409", description = "Another book has the same title and author"),
+        @ApiResponse(responseCode = "202", description = "Write queued, see the Location header for its status",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookWriteStatusDTO.class))),
+        @ApiResponse(responseCode = "412", description = "The book was modified since the If-Match ETag"),
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "Too many pending writes, retry after the Retry-After delay")
     })
     public ResponseEntity<?> updateBook(
             @Parameter(description = "Unique ID of the book", required = true, example = "1")
             @PathVariable Long id, 
             @Parameter(description = "New book data", required = true)
-            @Valid @RequestBody BookDTO bookDTO) {
+            @Valid @RequestBody BookDTO bookDTO,
+            @Parameter(description = "ETag of the book version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "respond-async to get a 202 without waiting for the commit (write-behind mode)")
+            @RequestHeader(value = PREFER, required = false) String prefer) {
         try {
-            BookDTO updatedBook = bookService.updateBook(id, bookDTO);
-            return ResponseEntity.ok(updatedBook);
+            Long expectedVersion = null;
+            if (ifMatch != null && !BookETags.isWildcard(ifMatch)) {
+                expectedVersion = BookETags.requiredVersion(ifMatch);
+                if (expectedVersion == null) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                                         .body("If-Match must be a single strong ETag or *");
+                }
+            }
+            if (respondAsync(prefer)) {
+                return accepted(bookService.submitUpdate(id, bookDTO, expectedVersion));
+            }
+            BookDTO updatedBook = bookService.updateBook(id, bookDTO, expectedVersion);
+            return BookETags.ok(BookETags.of(updatedBook.getVersion()), updatedBook);
+        } catch (DuplicateBookException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (StaleBookVersionException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        } catch (WriteQueueFullException e) {
+            return writeQueueFull(e);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
                 return ResponseEntity.notFound().build();
             }
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
+            log.error("updateBook failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body("Internal server error");
         }
@@ -123,37 +415,246 @@ public class BookController {
     
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete book", 
-               description = "Permanently deletes a book from the library")
+               description = "Permanently deletes a book from the library. " +
+                             "In write-behind mode, Prefer: respond-async returns 202 before the delete is committed")
     @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Write queued, see the Location header for its status",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookWriteStatusDTO.class))),
         @ApiResponse(responseCode = "204", description = "Book deleted successfully"),
         @ApiResponse(responseCode = "404", description = "Book not found"),
-        @ApiResponse(responseCode = "500", description = "Internal server error")
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "Too many pending writes, retry after the Retry-After delay")
     })
     public ResponseEntity<?> deleteBook(
             @Parameter(description = "Unique ID of the book", required = true, example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "respond-async to get a 202 without waiting for the commit (write-behind mode)")
+            @RequestHeader(value = PREFER, required = false) String prefer) {
         try {
+            if (respondAsync(prefer)) {
+                return accepted(bookService.submitDelete(id));
+            }
             bookService.deleteBook(id);
             return ResponseEntity.noContent().build();
+        } catch (WriteQueueFullException e) {
+            return writeQueueFull(e);
         } catch (RuntimeException e) {
             if (e.getMessage().contains("not found")) {
                 return ResponseEntity.notFound().build();
             }
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
+            log.error("deleteBook failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Internal server error");
+        }
+    }
+    
+    @PostMapping("/batch-get")
+    @Operation(summary = "Get many books by id", 
+               description = "Looks up to 1000 books with a single query. The books come back in the order of " +
+                             "the requested ids; ids with no book are listed in missingIds")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Books retrieved successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookBatchGetResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "No ids, more than 1000 or a null id"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getBooksByIds(
+            @Parameter(description = "Ids of the books", required = true)
+            @RequestBody BookIdsDTO request) {
+        try {
+            return ResponseEntity.ok(bookService.getBooksByIds(request.getIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("getBooksByIds failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Internal server error");
+        }
+    }
+    
+    @PutMapping("/batch")
+    @Operation(summary = "Update many books", 
+               description = "Updates up to 1000 books in one transaction and a single statement. Each book is " +
+                             "identified by its id; its version, when given, must be the current one (as If-Match " +
+                             "for a single update). Missing books and stale versions are reported per book and " +
+                             "leave the others updated. A title and author already used by another book " +
+                             "rolls the whole batch back with a 409")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch committed, see the result of each book",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookBatchResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid book data, no books, more than 1000, or a missing or repeated id"),
+        @ApiResponse(responseCode = "409", description = "Another book has the same title and author; nothing was updated"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> updateBooks(
+            @Parameter(description = "New data of the books", required = true)
+            @Valid @RequestBody BookBatchUpdateDTO request) {
+        try {
+            return ResponseEntity.ok(bookService.updateBooks(request.getBooks()));
+        } catch (DuplicateBookException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("updateBooks failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Internal server error");
+        }
+    }
+    
+    @PostMapping("/batch-delete")
+    @Operation(summary = "Delete many books", 
+               description = "Deletes up to 1000 books in a single statement. Ids with no book are reported as NOT_FOUND")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch committed, see the result of each book",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookBatchResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "No ids, more than 1000 or a null id"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> deleteBooks(
+            @Parameter(description = "Ids of the books", required = true)
+            @RequestBody BookIdsDTO request) {
+        try {
+            return ResponseEntity.ok(bookService.deleteBooks(request.getIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("deleteBooks failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body("Internal server error");
         }
     }
     
+    @GetMapping("/writes/{writeId}")
+    @Operation(summary = "Get write status", 
+               description = "Returns the status of a write accepted with Prefer: respond-async. " +
+                             "Statuses are kept in memory for 10 minutes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Write status retrieved successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookWriteStatusDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired write id")
+    })
+    public ResponseEntity<BookWriteStatusDTO> getWriteStatus(
+            @Parameter(description = "Id returned when the write was accepted", required = true)
+            @PathVariable String writeId) {
+        return bookService.findWrite(writeId)
+                          .map(write -> ResponseEntity.ok(toStatusDTO(write)))
+                          .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Get catalog changes", 
+               description = "Returns the committed creates, updates and deletes after a position of the change log, " +
+                             "in commit order. Without after, returns no changes, only the current position in the " +
+                             "Change-Log-Position header: a new replica notes it, loads GET /api/books, then applies " +
+                             "the changes after it (changes carry the book version, so ones already loaded can be skipped)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes retrieved successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookChangeDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid limit"),
+        @ApiResponse(responseCode = "410", description = "The position is older than the retention period: reload the catalog")
+    })
+    public ResponseEntity<?> getChanges(
+            @Parameter(description = "Position after which to return changes (seq of the last change applied)", example = "1042")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of changes (default 500, at most 1000)", example = "500")
+            @RequestParam(required = false) Integer limit) {
+        try {
+            if (limit != null && limit < 1) {
+                return ResponseEntity.badRequest().body("Limit must be greater than 0");
+            }
+            if (after == null) {
+                return ResponseEntity.ok()
+                                     .header(CHANGE_LOG_POSITION, String.valueOf(changeFeed.getLatestSeq()))
+                                     .body(List.of());
+            }
+            int pageSize = limit == null ? DEFAULT_CHANGES_LIMIT : Math.min(limit, MAX_CHANGES_LIMIT);
+            List<BookChangeDTO> changes = changeFeed.next(after, pageSize, Duration.ZERO);
+            long position = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq();
+            return ResponseEntity.ok()
+                                 .header(CHANGE_LOG_POSITION, String.valueOf(position))
+                                 .body(changes);
+        } catch (ChangeLogPrunedException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("getChanges failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Internal server error");
+        }
+    }
+    
+    @GetMapping(value = "/changes/stream", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, APPLICATION_NDJSON})
+    @Operation(summary = "Stream catalog changes", 
+               description = "Streams committed changes as they happen, starting after the given position " +
+                             "(after, or the Last-Event-ID header on reconnect; the current position by default). " +
+                             "Accept: text/event-stream sends server-sent events whose id is the position; " +
+                             "application/x-ndjson sends one change per line. Streams end after 30 minutes: " +
+                             "resume after the last position applied")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Change stream opened",
+                    content = {@Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE),
+                               @Content(mediaType = APPLICATION_NDJSON,
+                                        schema = @Schema(implementation = BookChangeDTO.class))}),
+        @ApiResponse(responseCode = "400", description = "Invalid position"),
+        @ApiResponse(responseCode = "410", description = "The position is older than the retention period: reload the catalog"),
+        @ApiResponse(responseCode = "503", description = "Too many open streams, retry after the Retry-After delay")
+    })
+    public ResponseEntity<ResponseBodyEmitter> streamChanges(
+            @Parameter(description = "Position after which to stream changes", example = "1042")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Id of the last event received, sent by EventSource clients on reconnect")
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId,
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @Parameter(hidden = true) HttpServletResponse response) {
+        long afterSeq;
+        try {
+            String position = lastEventId != null && !lastEventId.isBlank() ? lastEventId : after;
+            afterSeq = position == null ? changeFeed.getLatestSeq() : Long.parseLong(position.trim());
+            changeFeed.checkPosition(afterSeq);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (ChangeLogPrunedException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        boolean serverSentEvents = accept == null || !accept.contains(APPLICATION_NDJSON);
+        ResponseBodyEmitter emitter = changeStreams.open(afterSeq, serverSentEvents);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                                 .build();
+        }
+        GzipResponseFilter.flushEagerly(response);
+        return ResponseEntity.ok()
+                             .contentType(serverSentEvents ? MediaType.TEXT_EVENT_STREAM
+                                                           : MediaType.parseMediaType(APPLICATION_NDJSON))
+                             .cacheControl(CacheControl.noStore())
+                             .body(emitter);
+    }
+    
     @GetMapping("/search")
     @Operation(summary = "Search books by multiple criteria", 
-               description = "Search for books using any combination of title, author, category, or publication year")
+               description = "Search for books using any combination of title, author, category, publication year " +
+                             "and year range (either end may be left open). All given criteria are combined. " +
+                             "Results are ranked by title/author similarity, otherwise ordered by id, and limited. " +
+                             "Once the in-memory index is loaded, searches are answered from memory in id order " +
+                             "and title/author match word prefixes. For autocomplete while typing use /suggest. " +
+                             "Accept: application/cbor or application/x-jackson-smile returns a compact binary body")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Search completed successfully"),
-        @ApiResponse(responseCode = "500", description = "Internal server error")
+        @ApiResponse(responseCode = "400", description = "Invalid limit"),
+        @ApiResponse(responseCode = "429", description = "Too many requests from this client, see Retry-After"),
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "Server busy, see Retry-After")
     })
-    public ResponseEntity<List<BookDTO>> searchBooks(
+    public ResponseEntity<?> searchBooks(
             @Parameter(description = "Book title (partial match, case insensitive)")
             @RequestParam(required = false) String title,
             @Parameter(description = "Book author (partial match, case insensitive)")
@@ -165,26 +666,110 @@ public class BookController {
             @Parameter(description = "Start year for range search")
             @RequestParam(required = false) Integer startYear,
             @Parameter(description = "End year for range search")
-            @RequestParam(required = false) Integer endYear) {
+            @RequestParam(required = false) Integer endYear,
+            @Parameter(description = "Maximum number of books (1-1000, default 100)", example = "100")
+            @RequestParam(required = false) Integer limit) {
         
         try {
-            List<BookDTO> books;
-            
-            // If year range is provided, use that search method
-            if (startYear != null && endYear != null) {
-                books = bookService.findByYearRange(startYear, endYear);
-            } 
-            // Otherwise use the multiple criteria search
-            else {
-                books = bookService.findByMultipleCriteria(title, author, category, publicationYear);
-            }
-            
+            BookSearchCriteria criteria = new BookSearchCriteria(title, author, category, publicationYear,
+                                                                 startYear, endYear);
+            List<BookDTO> books = bookService.searchBooks(criteria, limit);
             return ResponseEntity.ok(books);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
+            log.error("searchBooks failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest titles and authors while typing", 
+               description = "Autocomplete for search boxes, answered from the in-memory index without a database query. " +
+                             "Titles and authors with a word starting with q come first, then (from 3 characters on) " +
+                             "those within one typo of it: one character added, missing, changed or swapped. " +
+                             "Each group is ordered by number of books. Case and accents are ignored")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     array = @ArraySchema(schema = @Schema(implementation = BookSuggestionDTO.class)))),
+        @ApiResponse(responseCode = "400", description = "Invalid field or limit"),
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "The in-memory index is disabled or still loading")
+    })
+    public ResponseEntity<?> suggest(
+            @Parameter(description = "What the user has typed so far", required = true, example = "quix")
+            @RequestParam String q,
+            @Parameter(description = "title or author; both when omitted", example = "title")
+            @RequestParam(required = false) String field,
+            @Parameter(description = "Maximum number of suggestions (1-50, default 10)", example = "10")
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<BookSuggestionDTO> suggestions = bookService.suggest(q, field, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (SuggestionsUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("suggest failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    @GetMapping("/facets")
+    @Operation(summary = "Get book counts per category, author and publication-year bucket", 
+               description = "Without filters the counts come from a summary table kept up to date on every write. " +
+                             "With filters (same as /search) they count the books the search would return. " +
+                             "The ETag changes whenever the catalog changes; send it back in If-None-Match to get a 304")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Facet counts retrieved successfully",
+                    content = @Content(mediaType = "application/json", 
+                                     schema = @Schema(implementation = BookFacetsDTO.class))),
+        @ApiResponse(responseCode = "304", description = "The catalog has not changed since the given ETag"),
+        @ApiResponse(responseCode = "400", description = "Invalid year bucket or author limit"),
+        @ApiResponse(responseCode = "429", description = "Too many requests from this client, see Retry-After"),
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "Server busy, see Retry-After")
+    })
+    public ResponseEntity<?> getFacets(
+            @Parameter(description = "Book title (partial match, case insensitive)")
+            @RequestParam(required = false) String title,
+            @Parameter(description = "Book author (partial match, case insensitive)")
+            @RequestParam(required = false) String author,
+            @Parameter(description = "Book category (exact match)")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Publication year")
+            @RequestParam(required = false) Integer publicationYear,
+            @Parameter(description = "Start year for range search")
+            @RequestParam(required = false) Integer startYear,
+            @Parameter(description = "End year for range search")
+            @RequestParam(required = false) Integer endYear,
+            @Parameter(description = "Years per publication-year bucket (1-1000, default 10)", example = "10")
+            @RequestParam(required = false) Integer yearBucket,
+            @Parameter(description = "Number of authors with most books to list (1-1000, default 20)", example = "20")
+            @RequestParam(required = false) Integer authorLimit,
+            @Parameter(description = "ETag of previously received facets")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            long catalogVersion = bookService.getCatalogVersion();
+            String matchingETag = BookETags.matchIfNoneMatch(ifNoneMatch, catalogVersion);
+            if (matchingETag != null) {
+                return BookETags.notModified(matchingETag);
+            }
+            BookSearchCriteria criteria = new BookSearchCriteria(title, author, category, publicationYear,
+                                                                 startYear, endYear);
+            BookFacetsDTO facets = bookService.getFacets(criteria, yearBucket, authorLimit);
+            return BookETags.ok(BookETags.of(catalogVersion), facets);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.error("getFacets failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Internal server error");
+        }
+    }
+    
     @GetMapping("/categories")
     @Operation(summary = "Get all book categories", 
                description = "Returns a list of all unique book categories in the library")
@@ -193,6 +778,7 @@ public class BookController {
             List<String> categories = bookService.getAllCategories();
             return ResponseEntity.ok(categories);
         } catch (Exception e) {
+            log.error("getAllCategories failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -205,7 +791,31 @@ public class BookController {
             List<String> authors = bookService.getAllAuthors();
             return ResponseEntity.ok(authors);
         } catch (Exception e) {
+            log.error("getAllAuthors failed", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    
+    // Helper methods for write-behind responses
+    private boolean respondAsync(String prefer) {
+        return prefer != null && prefer.toLowerCase(Locale.ROOT).contains(RESPOND_ASYNC) && bookService.isWriteBehindEnabled();
+    }
+    
+    private ResponseEntity<BookWriteStatusDTO> accepted(BookWrite write) {
+        return ResponseEntity.accepted()
+                             .location(URI.create("/api/books/writes/" + write.getId()))
+                             .header("Preference-Applied", RESPOND_ASYNC)
+                             .body(toStatusDTO(write));
+    }
+    
+    private ResponseEntity<String> writeQueueFull(WriteQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                             .body(e.getMessage());
+    }
+    
+    private static BookWriteStatusDTO toStatusDTO(BookWrite write) {
+        return new BookWriteStatusDTO(write.getId(), write.getType().name(), write.getStatus().name(),
+                write.getBook(), write.getError());
+    }
 }
@@ -0,0 +1,71 @@
+package com.FullStackExample.apiFullStackExample.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// Strong ETags built from version counters: a book's ETag is its version and the ETag of the list
+// and page responses is the catalog version, so they can be checked without building the body.
+// Other representations of the same version get suffixed tags ("7-cbor", "7-gzip", see BookFormatETagAdvice
+// and GzipResponseFilter), and conditional headers are matched on the version alone
+final class BookETags {
+
+    private BookETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static <T> ResponseEntity<T> ok(String eTag, T body) {
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    // The 304 carries the tag the client sent, which names the representation it holds
+    static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    // The If-None-Match tag matching the version (weak comparison, as RFC 9110 requires for GET), or null
+    static String matchIfNoneMatch(String ifNoneMatch, long version) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return of(version);
+            }
+            Long tagVersion = version(tag.startsWith("W/") ? tag.substring(2) : tag);
+            if (tagVersion != null && tagVersion == version) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    static boolean isWildcard(String header) {
+        return header.trim().equals("*");
+    }
+
+    // The version an If-Match header requires, or null when no version can match it: a weak or
+    // malformed tag, or a list of tags (an update checks a single version)
+    static Long requiredVersion(String ifMatch) {
+        return version(ifMatch.trim());
+    }
+
+    // Version of a strong tag such as "7" or "7-cbor-gzip"
+    private static Long version(String tag) {
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        String opaque = tag.substring(1, tag.length() - 1);
+        int suffix = opaque.indexOf('-');
+        try {
+            long version = Long.parseLong(suffix < 0 ? opaque : opaque.substring(0, suffix));
+            return version < 0 ? null : version;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
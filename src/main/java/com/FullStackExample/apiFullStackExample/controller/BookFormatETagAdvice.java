@@ -0,0 +1,53 @@
+package com.FullStackExample.apiFullStackExample.controller;
+
+import com.FullStackExample.apiFullStackExample.config.ContentFormatConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Gives CBOR and Smile responses their own strong ETag ("7-cbor", "7-smile"): the format is only known
+// once the message converter is chosen, after the controller has set the version ETag
+@RestControllerAdvice(assignableTypes = BookController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BookFormatETagAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        // Bodiless responses (304) keep the tag the client sent
+        String suffix = formatSuffix(selectedContentType);
+        String eTag = response.getHeaders().getETag();
+        if (body == null || suffix == null || eTag == null || !eTag.startsWith("\"")
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        // For GET the ETag is already on the servlet response, for other methods it is still pending
+        response.getHeaders().remove(HttpHeaders.ETAG);
+        servletResponse.getServletResponse().setHeader(HttpHeaders.ETAG,
+                eTag.substring(0, eTag.length() - 1) + suffix + "\"");
+        return body;
+    }
+
+    private static String formatSuffix(MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(contentType)) {
+            return "-cbor";
+        }
+        if (ContentFormatConfig.APPLICATION_SMILE.equalsTypeAndSubtype(contentType)) {
+            return "-smile";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.FullStackExample.apiFullStackExample.datasource;
+
+import java.util.function.Supplier;
+
+// Where the read-only transactions of the current thread go when replicas are configured (see ReplicaDataSource).
+// Pinned threads read from the primary: requests of a client that has just written (see ReadRoutingFilter),
+// reads that fill a shared cache, and loads and writers that later writes are applied on top of. Other threads
+// keep the replica they first used, so the reads of one request never go back in time (a catalog version read
+// before a list is never newer than the list). The routing is per request: ReadRoutingFilter resets it, work
+// handed to the application task executor carries it over (see propagate), background threads reset it per cycle
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> REPLICA = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    // Where the next read-only transaction of this thread goes: "primary", the index of the replica it keeps,
+    // or null before its first read. Threads on the same route read the same data (see BookReadCoalescer)
+    public static Object currentRoute() {
+        return isPinnedToPrimary() ? "primary" : REPLICA.get();
+    }
+
+    public static void onPrimary(Runnable action) {
+        readOnPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T readOnPrimary(Supplier<T> read) {
+        boolean pinned = isPinnedToPrimary();
+        pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            if (!pinned) {
+                PINNED.remove();
+            }
+        }
+    }
+
+    // The task, run with the routing of the current thread (the request's pin and replica) wherever it runs,
+    // and leaving the routing of the thread running it as it found it
+    public static Runnable propagate(Runnable task) {
+        Boolean pinned = PINNED.get();
+        Integer replica = REPLICA.get();
+        return () -> {
+            Boolean previousPinned = PINNED.get();
+            Integer previousReplica = REPLICA.get();
+            set(pinned, replica);
+            try {
+                task.run();
+            } finally {
+                set(previousPinned, previousReplica);
+            }
+        };
+    }
+
+    // Forget the pin and the replica, at the end of a request
+    public static void reset() {
+        PINNED.remove();
+        REPLICA.remove();
+    }
+
+    private static void set(Boolean pinned, Integer replica) {
+        if (pinned == null) {
+            PINNED.remove();
+        } else {
+            PINNED.set(pinned);
+        }
+        if (replica == null) {
+            REPLICA.remove();
+        } else {
+            REPLICA.set(replica);
+        }
+    }
+
+    static Integer currentReplica() {
+        return REPLICA.get();
+    }
+
+    static void useReplica(int index) {
+        REPLICA.set(index);
+    }
+}
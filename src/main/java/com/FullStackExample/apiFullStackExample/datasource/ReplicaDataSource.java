@@ -0,0 +1,131 @@
+package com.FullStackExample.apiFullStackExample.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Connections for read-only transactions (see DataSourceConfig): threads are spread round robin over the
+// replica pools and keep theirs (see ReadRouting), falling back to the primary when no replica is available
+// or the thread is pinned to it. A replica that fails to give a connection is skipped for retry-interval,
+// then a single read tries it again
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long retryIntervalNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryFallbacks;
+
+    public ReplicaDataSource(DataSource primary, Map<String, DataSource> replicas, Duration retryInterval,
+                             MeterRegistry meterRegistry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.primaryFallbacks = Counter.builder("books.datasource.primary-fallbacks")
+                .description("Read-only transactions sent to the primary because no replica was available")
+                .register(meterRegistry);
+        Gauge.builder("books.datasource.replicas.available", this, ReplicaDataSource::availableReplicas)
+                .description("Replicas currently receiving read-only transactions")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadRouting.isPinnedToPrimary()) {
+            return primary.getConnection();
+        }
+        Integer current = ReadRouting.currentReplica();
+        int start = current != null ? current : Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            Replica replica = replicas.get(index);
+            if (!replica.tryUse(System.nanoTime())) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.markUp();
+                ReadRouting.useReplica(index);
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(System.nanoTime());
+                log.warn("Replica {} is unavailable, retrying it in {} ms: {}", replica.name,
+                        retryIntervalNanos / 1_000_000, e.getMessage());
+            }
+        }
+        primaryFallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the credentials of their pools");
+    }
+
+    public int availableReplicas() {
+        return (int) replicas.stream().filter(Replica::isUp).count();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        // System.nanoTime() until which the replica is skipped, 0 while it is up
+        private final AtomicLong downUntil = new AtomicLong();
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isUp() {
+            return downUntil.get() == 0;
+        }
+
+        // Up, or down with the retry interval over: the first caller gets the retry, the others keep skipping it
+        boolean tryUse(long now) {
+            long until = downUntil.get();
+            return until == 0 || (now - until >= 0 && downUntil.compareAndSet(until, now + retryIntervalNanos));
+        }
+
+        void markUp() {
+            if (downUntil.getAndSet(0) != 0) {
+                log.info("Replica {} is available again", name);
+            }
+        }
+
+        void markDown(long now) {
+            downUntil.set(now + retryIntervalNanos);
+        }
+    }
+}
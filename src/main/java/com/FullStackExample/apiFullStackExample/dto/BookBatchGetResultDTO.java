@@ -0,0 +1,40 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Books found for a batch lookup")
+public class BookBatchGetResultDTO {
+
+    @Schema(description = "Books found, in the order their ids were requested")
+    private List<BookDTO> books;
+
+    @Schema(description = "Requested ids with no book", example = "[42]")
+    private List<Long> missingIds;
+
+    // Constructors
+    public BookBatchGetResultDTO() {}
+
+    public BookBatchGetResultDTO(List<BookDTO> books, List<Long> missingIds) {
+        this.books = books;
+        this.missingIds = missingIds;
+    }
+
+    // Getters and Setters
+    public List<BookDTO> getBooks() {
+        return books;
+    }
+
+    public void setBooks(List<BookDTO> books) {
+        this.books = books;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
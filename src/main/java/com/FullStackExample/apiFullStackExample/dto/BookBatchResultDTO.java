@@ -0,0 +1,121 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Outcome of a batch update or delete, committed in one transaction")
+public class BookBatchResultDTO {
+
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String STALE_VERSION = "STALE_VERSION";
+
+    @Schema(description = "Number of books updated or deleted", example = "99")
+    private int succeeded;
+
+    @Schema(description = "Number of books left unchanged", example = "1")
+    private int failed;
+
+    @Schema(description = "One result per requested book, in request order")
+    private List<Item> results = new ArrayList<>();
+
+    // Constructors
+    public BookBatchResultDTO() {}
+
+    public void addSuccess(Long id, String status, BookDTO book) {
+        succeeded++;
+        results.add(new Item(id, status, book, null));
+    }
+
+    public void addFailure(Long id, String status, String error) {
+        failed++;
+        results.add(new Item(id, status, null, error));
+    }
+
+    // Getters and Setters
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<Item> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Item> results) {
+        this.results = results;
+    }
+
+    @Schema(description = "Outcome for one book of a batch")
+    public static class Item {
+
+        @Schema(description = "Id of the book", example = "1")
+        private Long id;
+
+        @Schema(description = "UPDATED, DELETED, NOT_FOUND or STALE_VERSION", example = "UPDATED")
+        private String status;
+
+        @Schema(description = "The updated book, with its new version")
+        private BookDTO book;
+
+        @Schema(description = "Why the book was left unchanged", example = "Book not found with id: 42")
+        private String error;
+
+        // Constructors
+        public Item() {}
+
+        public Item(Long id, String status, BookDTO book, String error) {
+            this.id = id;
+            this.status = status;
+            this.book = book;
+            this.error = error;
+        }
+
+        // Getters and Setters
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public BookDTO getBook() {
+            return book;
+        }
+
+        public void setBook(BookDTO book) {
+            this.book = book;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+
+import java.util.List;
+
+@Schema(description = "Books to update in one request")
+public class BookBatchUpdateDTO {
+
+    @Valid
+    @Schema(description = "New data of each book (at most 1000), identified by its id. " +
+                          "A version, when given, is the version the update is based on, as If-Match for a single update")
+    private List<BookDTO> books;
+
+    // Constructors
+    public BookBatchUpdateDTO() {}
+
+    public BookBatchUpdateDTO(List<BookDTO> books) {
+        this.books = books;
+    }
+
+    // Getters and Setters
+    public List<BookDTO> getBooks() {
+        return books;
+    }
+
+    public void setBooks(List<BookDTO> books) {
+        this.books = books;
+    }
+}
@@ -0,0 +1,79 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "A committed change to the catalog, in log order")
+public class BookChangeDTO {
+
+    @Schema(description = "Position in the change log; resume after it with ?after= or Last-Event-ID", example = "1042")
+    private long seq;
+
+    @Schema(description = "CREATE, UPDATE, DELETE, or TRUNCATE (every book was deleted: reload the catalog)", example = "UPDATE")
+    private String operation;
+
+    @Schema(description = "Id of the changed book, null for TRUNCATE", example = "1")
+    private Long bookId;
+
+    @Schema(description = "The book after a CREATE or UPDATE, null otherwise")
+    private BookDTO book;
+
+    @Schema(description = "Start time of the transaction that made the change", example = "2026-10-17T08:30:00Z")
+    private Instant changedAt;
+
+    // Constructors
+    public BookChangeDTO() {}
+
+    public BookChangeDTO(Long seq, String operation, Long bookId, String title, String author,
+                         Integer publicationYear, String category, Long version, Instant changedAt) {
+        this.seq = seq;
+        this.operation = operation;
+        this.bookId = bookId;
+        if (title != null) {
+            this.book = new BookDTO(bookId, title, author, publicationYear, category, version);
+        }
+        this.changedAt = changedAt;
+    }
+
+    // Getters and Setters
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public BookDTO getBook() {
+        return book;
+    }
+
+    public void setBook(BookDTO book) {
+        this.book = book;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
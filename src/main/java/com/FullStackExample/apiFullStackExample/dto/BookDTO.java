@@ -31,6 +31,9 @@ public class BookDTO {
     @Schema(description = "Category or genre of the book", example = "Novel")
     private String category;
     
+    @Schema(description = "Version of the book, increased on every update (its ETag is the quoted version)", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+    
     // Constructors
     public BookDTO() {}
     
@@ -49,6 +52,11 @@ public class BookDTO {
         this.category = category;
     }
     
+    public BookDTO(Long id, String title, String author, Integer publicationYear, String category, Long version) {
+        this(id, title, author, publicationYear, category);
+        this.version = version;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -89,4 +97,12 @@ public class BookDTO {
     public void setCategory(String category) {
         this.category = category;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,65 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Book counts per category, author and publication-year bucket")
+public class BookFacetsDTO {
+
+    @Schema(description = "Number of books matching the filters", example = "1250")
+    private long total;
+
+    @Schema(description = "Counts per category, largest first")
+    private List<FacetCountDTO> categories;
+
+    @Schema(description = "Counts of the authors with most books, largest first")
+    private List<FacetCountDTO> authors;
+
+    @Schema(description = "Counts per publication-year bucket, oldest first")
+    private List<YearBucketCountDTO> years;
+
+    // Constructors
+    public BookFacetsDTO() {}
+
+    public BookFacetsDTO(long total, List<FacetCountDTO> categories, List<FacetCountDTO> authors,
+                         List<YearBucketCountDTO> years) {
+        this.total = total;
+        this.categories = categories;
+        this.authors = authors;
+        this.years = years;
+    }
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<FacetCountDTO> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<FacetCountDTO> categories) {
+        this.categories = categories;
+    }
+
+    public List<FacetCountDTO> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(List<FacetCountDTO> authors) {
+        this.authors = authors;
+    }
+
+    public List<YearBucketCountDTO> getYears() {
+        return years;
+    }
+
+    public void setYears(List<YearBucketCountDTO> years) {
+        this.years = years;
+    }
+}
@@ -0,0 +1,28 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Ids of the books to read or delete in one request")
+public class BookIdsDTO {
+
+    @Schema(description = "Book ids (at most 1000)", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    // Constructors
+    public BookIdsDTO() {}
+
+    public BookIdsDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,112 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Summary of a bulk book import")
+public class BookImportResultDTO {
+
+    // Only the first errors are reported, so the summary stays small on huge imports
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    @Schema(description = "Number of data rows read from the body", example = "1000000")
+    private long rowsRead;
+
+    @Schema(description = "Number of books inserted", example = "999000")
+    private long inserted;
+
+    @Schema(description = "Rows skipped because a book with the same title and author exists", example = "900")
+    private long duplicates;
+
+    @Schema(description = "Rows skipped because they could not be parsed or failed validation", example = "100")
+    private long invalid;
+
+    @Schema(description = "Number of insert batches committed", example = "2000")
+    private long batches;
+
+    @Schema(description = "Total import time in milliseconds", example = "42000")
+    private long elapsedMillis;
+
+    @Schema(description = "Import throughput in rows per second", example = "23809.5")
+    private double rowsPerSecond;
+
+    @Schema(description = "First errors found, with their line numbers")
+    private List<String> errors = new ArrayList<>();
+
+    // Constructors
+    public BookImportResultDTO() {}
+
+    public void addError(long lineNumber, String message) {
+        invalid++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Line " + lineNumber + ": " + message);
+        }
+    }
+
+    // Getters and Setters
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public void setInvalid(long invalid) {
+        this.invalid = invalid;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
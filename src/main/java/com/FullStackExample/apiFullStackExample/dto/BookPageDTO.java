@@ -0,0 +1,52 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A page of books obtained with keyset (cursor) pagination")
+public class BookPageDTO {
+
+    @Schema(description = "Books in this page, ordered by ID")
+    private List<BookDTO> content;
+
+    @Schema(description = "Opaque cursor to request the next page, null when this is the last page", example = "NTA")
+    private String nextCursor;
+
+    @Schema(description = "Whether there are more books after this page", example = "true")
+    private boolean hasNext;
+
+    // Constructors
+    public BookPageDTO() {}
+
+    public BookPageDTO(List<BookDTO> content, String nextCursor, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    // Getters and Setters
+    public List<BookDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<BookDTO> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,89 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+// Filters accepted by the book search; null fields are not applied
+public class BookSearchCriteria {
+
+    private String title;
+
+    private String author;
+
+    private String category;
+
+    private Integer publicationYear;
+
+    private Integer startYear;
+
+    private Integer endYear;
+
+    // Constructors
+    public BookSearchCriteria() {}
+
+    public BookSearchCriteria(String title, String author, String category, Integer publicationYear,
+                              Integer startYear, Integer endYear) {
+        this.title = title;
+        this.author = author;
+        this.category = category;
+        this.publicationYear = publicationYear;
+        this.startYear = startYear;
+        this.endYear = endYear;
+    }
+
+    // Whether a year range applies; either end may be left open
+    public boolean hasYearRange() {
+        return startYear != null || endYear != null;
+    }
+
+    // Whether no filter applies
+    public boolean isEmpty() {
+        return title == null && author == null && category == null && publicationYear == null && !hasYearRange();
+    }
+
+    // Getters and Setters
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+
+    public void setPublicationYear(Integer publicationYear) {
+        this.publicationYear = publicationYear;
+    }
+
+    public Integer getStartYear() {
+        return startYear;
+    }
+
+    public void setStartYear(Integer startYear) {
+        this.startYear = startYear;
+    }
+
+    public Integer getEndYear() {
+        return endYear;
+    }
+
+    public void setEndYear(Integer endYear) {
+        this.endYear = endYear;
+    }
+}
@@ -0,0 +1,63 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Title or author suggested for what the user has typed so far")
+public class BookSuggestionDTO {
+
+    @Schema(description = "Suggested title or author", example = "Don Quixote")
+    private String text;
+
+    @Schema(description = "Field the suggestion comes from", example = "title", allowableValues = {"title", "author"})
+    private String field;
+
+    @Schema(description = "Number of books with this title or author", example = "3")
+    private long count;
+
+    @Schema(description = "Whether it only matches with one typo (one character added, missing, changed or swapped)",
+            example = "false")
+    private boolean fuzzy;
+
+    // Constructors
+    public BookSuggestionDTO() {}
+
+    public BookSuggestionDTO(String text, String field, long count, boolean fuzzy) {
+        this.text = text;
+        this.field = field;
+        this.count = count;
+        this.fuzzy = fuzzy;
+    }
+
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public boolean isFuzzy() {
+        return fuzzy;
+    }
+
+    public void setFuzzy(boolean fuzzy) {
+        this.fuzzy = fuzzy;
+    }
+}
@@ -0,0 +1,74 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Status of a book write accepted by the write-behind queue")
+public class BookWriteStatusDTO {
+
+    @Schema(description = "Id of the write", example = "3f0c8a4e-9a51-4c1e-8d5e-0f3b2d6c7a11")
+    private String writeId;
+
+    @Schema(description = "Kind of write", example = "CREATE")
+    private String type;
+
+    @Schema(description = "PENDING until the write's group commits, then COMMITTED or FAILED", example = "COMMITTED")
+    private String status;
+
+    @Schema(description = "The written book once committed, null for deletes")
+    private BookDTO book;
+
+    @Schema(description = "Why the write failed", example = "Book not found with id: 42")
+    private String error;
+
+    // Constructors
+    public BookWriteStatusDTO() {}
+
+    public BookWriteStatusDTO(String writeId, String type, String status, BookDTO book, String error) {
+        this.writeId = writeId;
+        this.type = type;
+        this.status = status;
+        this.book = book;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getWriteId() {
+        return writeId;
+    }
+
+    public void setWriteId(String writeId) {
+        this.writeId = writeId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public BookDTO getBook() {
+        return book;
+    }
+
+    public void setBook(BookDTO book) {
+        this.book = book;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
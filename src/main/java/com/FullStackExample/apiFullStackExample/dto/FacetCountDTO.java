@@ -0,0 +1,38 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Number of books with a given category or author")
+public class FacetCountDTO {
+
+    @Schema(description = "Category or author", example = "Novel")
+    private String value;
+
+    @Schema(description = "Number of books", example = "42")
+    private long count;
+
+    // Constructors
+    public FacetCountDTO() {}
+
+    public FacetCountDTO(String value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,50 @@
+package com.FullStackExample.apiFullStackExample.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Number of books published in a range of years")
+public class YearBucketCountDTO {
+
+    @Schema(description = "First year of the bucket", example = "1600")
+    private int startYear;
+
+    @Schema(description = "Last year of the bucket", example = "1609")
+    private int endYear;
+
+    @Schema(description = "Number of books", example = "3")
+    private long count;
+
+    // Constructors
+    public YearBucketCountDTO() {}
+
+    public YearBucketCountDTO(int startYear, int endYear, long count) {
+        this.startYear = startYear;
+        this.endYear = endYear;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public int getStartYear() {
+        return startYear;
+    }
+
+    public void setStartYear(int startYear) {
+        this.startYear = startYear;
+    }
+
+    public int getEndYear() {
+        return endYear;
+    }
+
+    public void setEndYear(int endYear) {
+        this.endYear = endYear;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -2,12 +2,15 @@ package com.FullStackExample.apiFullStackExample.entity;
 
 import jakarta.persistence.*;
 
+// Indexes and constraints come from the Flyway migrations (db/migration), checked by BookRepositoryQueryPlanTests
 @Entity
 @Table(name = "book")
 public class Book {
     
+    // Ids come from book_id_seq in blocks of 50 (pooled optimizer), so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_id_seq")
+    @SequenceGenerator(name = "book_id_seq", sequenceName = "book_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -21,6 +24,11 @@ public class Book {
     
     private String category;
     
+    // Optimistic lock: checked and incremented on every update, and sent to clients as the book's ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Constructors
     public Book() {}
     
@@ -72,6 +80,14 @@ public class Book {
         this.category = category;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "Book{" +
@@ -80,6 +96,7 @@ public class Book {
                 ", author='" + author + '\'' +
                 ", publicationYear=" + publicationYear +
                 ", category='" + category + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,80 @@
+package com.FullStackExample.apiFullStackExample.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+// Entry of the book change log. Rows are only written by the book_change_log trigger
+// (see V8__book_change_log.sql), so the entity is read-only
+@Entity
+@Immutable
+@Table(name = "book_change")
+public class BookChange {
+    
+    // Commit-ordered position in the log
+    @Id
+    private Long seq;
+    
+    // CREATE, UPDATE, DELETE or TRUNCATE
+    @Column(nullable = false, length = 8)
+    private String operation;
+    
+    @Column(name = "book_id")
+    private Long bookId;
+    
+    // New values of created and updated books
+    private String title;
+    
+    private String author;
+    
+    @Column(name = "publication_year")
+    private Integer publicationYear;
+    
+    private String category;
+    
+    private Long version;
+    
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+    
+    // Constructors
+    protected BookChange() {}
+    
+    // Getters
+    public Long getSeq() {
+        return seq;
+    }
+    
+    public String getOperation() {
+        return operation;
+    }
+    
+    public Long getBookId() {
+        return bookId;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public String getAuthor() {
+        return author;
+    }
+    
+    public Integer getPublicationYear() {
+        return publicationYear;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.FullStackExample.apiFullStackExample.exception;
+
+// The requested change log position is older than the retention period: the client must reload the catalog
+public class ChangeLogPrunedException extends RuntimeException {
+    
+    public ChangeLogPrunedException(long afterSeq, long prunedSeq) {
+        super("Changes after " + afterSeq + " are no longer kept (pruned up to " + prunedSeq
+                + "); reload the catalog and resume from a newer position");
+    }
+}
@@ -0,0 +1,9 @@
+package com.FullStackExample.apiFullStackExample.exception;
+
+// A book with the same title and author already exists (unique constraint uq_book_title_author)
+public class DuplicateBookException extends RuntimeException {
+    
+    public DuplicateBookException(Throwable cause) {
+        super("A book with the same title and author already exists", cause);
+    }
+}
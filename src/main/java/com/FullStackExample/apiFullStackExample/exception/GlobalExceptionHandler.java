@@ -1,5 +1,6 @@
 package com.FullStackExample.apiFullStackExample.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -24,6 +25,43 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errors);
     }
     
+    @ExceptionHandler(DuplicateBookException.class)
+    public ResponseEntity<Map<String, String>> handleDuplicateBook(DuplicateBookException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+    
+    @ExceptionHandler(StaleBookVersionException.class)
+    public ResponseEntity<Map<String, String>> handleStaleBookVersion(StaleBookVersionException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+    
+    @ExceptionHandler(ChangeLogPrunedException.class)
+    public ResponseEntity<Map<String, String>> handleChangeLogPruned(ChangeLogPrunedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GONE).body(error);
+    }
+    
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<Map<String, String>> handleWriteQueueFull(WriteQueueFullException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, "1")
+                             .body(error);
+    }
+    
+    @ExceptionHandler(SuggestionsUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleSuggestionsUnavailable(SuggestionsUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+    
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException ex) {
         Map<String, String> error = new HashMap<>();
@@ -0,0 +1,9 @@
+package com.FullStackExample.apiFullStackExample.exception;
+
+// The book was changed since the version the client sent in If-Match (optimistic concurrency)
+public class StaleBookVersionException extends RuntimeException {
+    
+    public StaleBookVersionException(Long id) {
+        super("Book " + id + " was modified by another request; fetch it again and retry");
+    }
+}
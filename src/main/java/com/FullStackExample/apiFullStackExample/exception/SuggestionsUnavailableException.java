@@ -0,0 +1,9 @@
+package com.FullStackExample.apiFullStackExample.exception;
+
+// Suggestions are only answered from the in-memory search index, which is disabled or still loading
+public class SuggestionsUnavailableException extends RuntimeException {
+    
+    public SuggestionsUnavailableException() {
+        super("Suggestions are not available until the search index is loaded");
+    }
+}
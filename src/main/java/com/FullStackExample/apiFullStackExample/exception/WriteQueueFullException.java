@@ -0,0 +1,9 @@
+package com.FullStackExample.apiFullStackExample.exception;
+
+// The write-behind queue stayed full for the whole offer timeout (backpressure)
+public class WriteQueueFullException extends RuntimeException {
+    
+    public WriteQueueFullException() {
+        super("Too many pending writes, retry later");
+    }
+}
@@ -0,0 +1,69 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// What one HTTP request spent on the database and on JSON serialization.
+// RequestMetricsFilter opens an instance per request on the handling thread; the Hibernate hooks and the
+// JSON converter add to it. Work outside a request (startup, background tasks) is not recorded.
+public final class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+    private int statements;
+    private int repeatedStatements;
+    private long databaseNanos;
+    private long serializationNanos;
+
+    private RequestMetrics() {
+    }
+
+    static RequestMetrics start() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // Metrics of the request handled by this thread, or null outside a request
+    public static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    // A statement run again with the same SQL in the same request (N+1 selects, repeated exists checks)
+    // counts as repeated
+    public void recordStatement(String sql) {
+        statements++;
+        if (statementCounts.merge(sql, 1, Integer::sum) > 1) {
+            repeatedStatements++;
+        }
+    }
+
+    public void addDatabaseTime(long nanos) {
+        databaseNanos += nanos;
+    }
+
+    public void addSerializationTime(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getRepeatedStatements() {
+        return repeatedStatements;
+    }
+
+    public long getDatabaseNanos() {
+        return databaseNanos;
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos;
+    }
+}
@@ -0,0 +1,92 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Publishes per-endpoint statement counts, database time and serialization time (books.request.* meters)
+// and logs slow requests plus a sample of the others, instead of logging every SQL statement
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Duration slowRequestThreshold;
+    private final double logSampleRate;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry, Duration slowRequestThreshold, double logSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.slowRequestThreshold = slowRequestThreshold;
+        this.logSampleRate = logSampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        RequestMetrics metrics = RequestMetrics.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestMetrics.end();
+            record(request, response, metrics, System.nanoTime() - start);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestMetrics metrics,
+                        long elapsedNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("books.request.statements")
+                .description("SQL statements per request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(metrics.getStatements());
+        DistributionSummary.builder("books.request.statements.repeated")
+                .description("SQL statements per request repeating one already run in the same request")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(metrics.getRepeatedStatements());
+        Timer.builder("books.request.database")
+                .description("Time per request spent executing SQL statements")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(metrics.getDatabaseNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("books.request.serialization")
+                .description("Time per request spent writing JSON response bodies")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .record(metrics.getSerializationNanos(), TimeUnit.NANOSECONDS);
+
+        boolean slow = elapsedNanos >= slowRequestThreshold.toNanos();
+        if (slow || (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate)) {
+            String message = "{} {} -> {} in {} ms: {} statements ({} repeated), database {} ms, serialization {} ms";
+            Object[] arguments = {
+                    method, uri, response.getStatus(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    metrics.getStatements(), metrics.getRepeatedStatements(),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.getDatabaseNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.getSerializationNanos())
+            };
+            if (slow) {
+                log.warn("Slow request " + message, arguments);
+            } else {
+                log.info(message, arguments);
+            }
+        }
+    }
+}
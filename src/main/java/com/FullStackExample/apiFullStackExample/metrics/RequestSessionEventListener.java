@@ -0,0 +1,38 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import org.hibernate.SessionEventListener;
+
+// Adds the time Hibernate spends executing JDBC statements and batches to the current request.
+// Hibernate creates one instance per session, so the start times need no synchronization
+public class RequestSessionEventListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        addDatabaseTime(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        addDatabaseTime(batchStart);
+    }
+
+    private static void addDatabaseTime(long start) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.addDatabaseTime(System.nanoTime() - start);
+        }
+    }
+}
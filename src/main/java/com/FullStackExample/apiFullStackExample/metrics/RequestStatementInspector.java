@@ -0,0 +1,16 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts the SQL statements Hibernate prepares during a request, leaving the SQL unchanged
+public class RequestStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.recordStatement(sql);
+        }
+        return sql;
+    }
+}
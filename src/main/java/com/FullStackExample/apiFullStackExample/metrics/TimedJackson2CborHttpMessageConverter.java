@@ -0,0 +1,29 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Cbor converter that adds the time spent writing response bodies to the current request,
+// like TimedJackson2HttpMessageConverter does for JSON
+public class TimedJackson2CborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    public TimedJackson2CborHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            TimedJackson2HttpMessageConverter.addSerializationTimeSince(start);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// JSON converter that adds the time spent writing response bodies to the current request.
+// The time includes writing to the response buffer, so very large bodies also count socket writes
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            addSerializationTimeSince(start);
+        }
+    }
+
+    // Shared with the binary format converters
+    static void addSerializationTimeSince(long start) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.addSerializationTime(System.nanoTime() - start);
+        }
+    }
+}
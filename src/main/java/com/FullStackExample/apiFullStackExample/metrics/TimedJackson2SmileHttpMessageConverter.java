@@ -0,0 +1,29 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Smile converter that adds the time spent writing response bodies to the current request,
+// like TimedJackson2HttpMessageConverter does for JSON
+public class TimedJackson2SmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    public TimedJackson2SmileHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            TimedJackson2HttpMessageConverter.addSerializationTimeSince(start);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.FullStackExample.apiFullStackExample.repository;
+
+import com.FullStackExample.apiFullStackExample.dto.BookChangeDTO;
+import com.FullStackExample.apiFullStackExample.entity.BookChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Read-only unless annotated otherwise, like BookRepository
+@Repository
+@Transactional(readOnly = true)
+public interface BookChangeRepository extends JpaRepository<BookChange, Long> {
+    
+    String BOOK_CHANGE_DTO = "new com.FullStackExample.apiFullStackExample.dto.BookChangeDTO(" +
+                             "c.seq, c.operation, c.bookId, c.title, c.author, c.publicationYear, " +
+                             "c.category, c.version, c.changedAt)";
+    
+    // Changes after the given position, in log order (primary key range scan)
+    @Query("SELECT " + BOOK_CHANGE_DTO + " FROM BookChange c WHERE c.seq > :afterSeq ORDER BY c.seq")
+    List<BookChangeDTO> findChangesAfter(@Param("afterSeq") long afterSeq, Limit limit);
+    
+    // Changes after the given position up to another one, in log order
+    @Query("SELECT " + BOOK_CHANGE_DTO + " FROM BookChange c WHERE c.seq > :afterSeq AND c.seq <= :upToSeq " +
+           "ORDER BY c.seq")
+    List<BookChangeDTO> findChangesBetween(@Param("afterSeq") long afterSeq, @Param("upToSeq") long upToSeq,
+                                           Limit limit);
+    
+    // Position of the latest committed change, 0 when the log is empty
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM BookChange c")
+    long findLatestSeq();
+    
+    // Oldest transaction still running (snapshot xmin): every transaction before it has committed or aborted.
+    // Read-only transactions have no transaction id and do not hold it back
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)", nativeQuery = true)
+    long findOldestRunningXid();
+    
+    // Next transaction id to be assigned (snapshot xmax): every transaction that has written so far is before it
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS TEXT) AS BIGINT)", nativeQuery = true)
+    long findNextXid();
+    
+    // Highest position removed by pruning: offsets before it cannot be resumed
+    @Query(value = "SELECT change_log_pruned_seq FROM catalog_state WHERE id = 1", nativeQuery = true)
+    long findPrunedSeq();
+    
+    // Delete the changes logged before the cutoff and remember how far the log was pruned
+    @Transactional
+    @Modifying
+    @Query(value = "WITH pruned AS (DELETE FROM book_change WHERE changed_at < :cutoff RETURNING seq) " +
+                   "UPDATE catalog_state SET change_log_pruned_seq = " +
+                   "GREATEST(change_log_pruned_seq, (SELECT COALESCE(MAX(seq), 0) FROM pruned)) WHERE id = 1",
+           nativeQuery = true)
+    int pruneChangesBefore(@Param("cutoff") Instant cutoff);
+}
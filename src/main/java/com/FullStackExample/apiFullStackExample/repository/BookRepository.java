@@ -1,51 +1,158 @@
 package com.FullStackExample.apiFullStackExample.repository;
 
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
 import com.FullStackExample.apiFullStackExample.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+// Queries run in read-only transactions unless annotated otherwise, so outside a write transaction they
+// go to a replica when replicas are configured (see DataSourceConfig)
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+@Transactional(readOnly = true)
+public interface BookRepository extends JpaRepository<Book, Long>, BookSearchRepository {
+    
+    // Read queries project straight into BookDTO: no managed entities, no dirty-checking snapshots
+    // and no entity-to-DTO copy
+    String BOOK_DTO = "new com.FullStackExample.apiFullStackExample.dto.BookDTO(" +
+                      "b.id, b.title, b.author, b.publicationYear, b.category, b.version)";
+    
+    // All books in id order
+    @Query("SELECT " + BOOK_DTO + " FROM Book b ORDER BY b.id")
+    List<BookDTO> findAllBooks();
+    
+    // Single book by id
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.id = :id")
+    Optional<BookDTO> findBookById(@Param("id") Long id);
+    
+    // Keyset pagination: next books after the given id, in id order
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.id > :id ORDER BY b.id")
+    List<BookDTO> findPageAfterId(@Param("id") Long id, Limit limit);
     
-    // Find books by title (containing the string, case insensitive)
-    List<Book> findByTitleContainingIgnoreCase(String title);
+    // Stream all books in id order through a forward-only cursor (requires an open transaction)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + BOOK_DTO + " FROM Book b ORDER BY b.id")
+    Stream<BookDTO> streamAllOrderById();
     
-    // Find books by author
-    List<Book> findByAuthorContainingIgnoreCase(String author);
+    // Find books by title (containing the string, case insensitive), best matches first.
+    // LOWER(title) LIKE '%x%' is served by the idx_book_title_trgm trigram index
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%')) " +
+           "ORDER BY FUNCTION('similarity', LOWER(b.title), LOWER(:title)) DESC, b.id")
+    List<BookDTO> findByTitleContainingIgnoreCase(@Param("title") String title);
+    
+    // Find books by author, best matches first (served by idx_book_author_trgm)
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%')) " +
+           "ORDER BY FUNCTION('similarity', LOWER(b.author), LOWER(:author)) DESC, b.id")
+    List<BookDTO> findByAuthorContainingIgnoreCase(@Param("author") String author);
     
     // Find books by category
-    List<Book> findByCategory(String category);
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.category = :category")
+    List<BookDTO> findByCategory(@Param("category") String category);
     
     // Find books by publication year
-    List<Book> findByPublicationYear(Integer publicationYear);
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.publicationYear = :publicationYear")
+    List<BookDTO> findByPublicationYear(@Param("publicationYear") Integer publicationYear);
     
     // Find books by year range
-    List<Book> findByPublicationYearBetween(Integer startYear, Integer endYear);
-    
-    // Check if book exists by title and author
-    boolean existsByTitleAndAuthor(String title, String author);
-    
-    // Custom query to search by multiple criteria
-    @Query("SELECT b FROM Book b WHERE " +
-           "(:title IS NULL OR LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-           "(:author IS NULL OR LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))) AND " +
-           "(:category IS NULL OR b.category = :category) AND " +
-           "(:publicationYear IS NULL OR b.publicationYear = :publicationYear)")
-    List<Book> findByMultipleCriteria(
-            @Param("title") String title,
-            @Param("author") String author,
-            @Param("category") String category,
-            @Param("publicationYear") Integer publicationYear);
-    
-    // Get all unique categories
-    @Query("SELECT DISTINCT b.category FROM Book b WHERE b.category IS NOT NULL ORDER BY b.category")
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.publicationYear BETWEEN :startYear AND :endYear")
+    List<BookDTO> findByPublicationYearBetween(@Param("startYear") Integer startYear,
+                                               @Param("endYear") Integer endYear);
+    
+    // Version meaning "any version" for updateReturningPrevious
+    long ANY_VERSION = -1L;
+    
+    // Update a book in one statement if its version matches (or expectedVersion is ANY_VERSION),
+    // incrementing the version. Returns the previous [author, category] and the new version;
+    // no row means the book does not exist or has another version.
+    // A title+author already used by another book violates uq_book_title_author
+    @Transactional
+    @Query(value = "UPDATE book b SET title = :title, author = :author, " +
+                   "publication_year = :publicationYear, category = :category, version = b.version + 1 " +
+                   "FROM book old WHERE b.id = :id AND old.id = b.id " +
+                   "AND (:expectedVersion = " + ANY_VERSION + " OR b.version = :expectedVersion) " +
+                   "RETURNING old.author, old.category, b.version", nativeQuery = true)
+    List<Object[]> updateReturningPrevious(@Param("id") Long id,
+                                           @Param("title") String title,
+                                           @Param("author") String author,
+                                           @Param("publicationYear") Integer publicationYear,
+                                           @Param("category") String category,
+                                           @Param("expectedVersion") long expectedVersion);
+    
+    // Update many books in one statement, each as updateReturningPrevious would: the arrays hold one entry per
+    // book, ANY_VERSION where no version is expected. Returns [id, previous author, previous category, new version]
+    // for each updated book; a book missing from the result does not exist or has another version
+    @Transactional
+    @Query(value = "UPDATE book b SET title = v.title, author = v.author, " +
+                   "publication_year = v.publication_year, category = v.category, version = b.version + 1 " +
+                   "FROM unnest(CAST(:ids AS bigint[]), CAST(:titles AS text[]), CAST(:authors AS text[]), " +
+                   "CAST(:publicationYears AS integer[]), CAST(:categories AS text[]), " +
+                   "CAST(:expectedVersions AS bigint[])) " +
+                   "AS v(id, title, author, publication_year, category, expected_version), book old " +
+                   "WHERE b.id = v.id AND old.id = b.id " +
+                   "AND (v.expected_version = " + ANY_VERSION + " OR b.version = v.expected_version) " +
+                   "RETURNING b.id, old.author, old.category, b.version", nativeQuery = true)
+    List<Object[]> updateAllReturningPrevious(@Param("ids") Long[] ids,
+                                              @Param("titles") String[] titles,
+                                              @Param("authors") String[] authors,
+                                              @Param("publicationYears") Integer[] publicationYears,
+                                              @Param("categories") String[] categories,
+                                              @Param("expectedVersions") Long[] expectedVersions);
+    
+    // Delete a book in one statement, returning the number of deleted rows
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Book b WHERE b.id = :id")
+    int deleteBookById(@Param("id") Long id);
+    
+    // Delete many books in one statement, returning the ids of the deleted ones
+    @Transactional
+    @Query(value = "DELETE FROM book WHERE id = ANY(CAST(:ids AS bigint[])) RETURNING id", nativeQuery = true)
+    List<Long> deleteAllReturningIds(@Param("ids") Long[] ids);
+    
+    // Books with the given ids, in id order
+    @Query("SELECT " + BOOK_DTO + " FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<BookDTO> findBooksByIds(@Param("ids") Collection<Long> ids);
+    
+    // Which of the given ids exist
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // Stored [title, author] pairs among the given titles and authors (the caller matches exact pairs)
+    @Query("SELECT b.title, b.author FROM Book b WHERE b.title IN :titles AND b.author IN :authors")
+    List<Object[]> findTitleAuthorPairs(@Param("titles") Collection<String> titles,
+                                        @Param("authors") Collection<String> authors);
+    
+    // Catalog-wide change counter: the sum of the counters bumped once by every transaction that writes to book
+    // (see V10__catalog_version_without_row_lock.sql)
+    @Query(value = "SELECT CAST(COALESCE(SUM(version), 0) AS BIGINT) FROM catalog_version_slot", nativeQuery = true)
+    long findCatalogVersion();
+    
+    // Unfiltered facet counts from the book_facet_count summary table (see V7__book_facet_count.sql):
+    // [facet, value, count] rows for the total, every category and year, and the top authors
+    @Query(value = "(SELECT facet, value, book_count FROM book_facet_count WHERE facet IN ('total', 'category', 'year')) " +
+                   "UNION ALL " +
+                   "(SELECT facet, value, book_count FROM book_facet_count WHERE facet = 'author' " +
+                   "ORDER BY book_count DESC, value LIMIT :authorLimit)", nativeQuery = true)
+    List<Object[]> findFacetCounts(@Param("authorLimit") int authorLimit);
+    
+    // Get all unique categories (from the facet summary table rather than a DISTINCT over every book)
+    @Query(value = "SELECT value FROM book_facet_count WHERE facet = 'category' ORDER BY value", nativeQuery = true)
     List<String> findAllCategories();
     
     // Get all unique authors
-    @Query("SELECT DISTINCT b.author FROM Book b ORDER BY b.author")
+    @Query(value = "SELECT value FROM book_facet_count WHERE facet = 'author' ORDER BY value", nativeQuery = true)
     List<String> findAllAuthors();
 }
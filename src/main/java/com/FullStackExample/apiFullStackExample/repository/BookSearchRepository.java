@@ -0,0 +1,25 @@
+package com.FullStackExample.apiFullStackExample.repository;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Book search with a query built from the given filters only (see BookSearchRepositoryImpl)
+@Transactional(readOnly = true)
+public interface BookSearchRepository {
+    
+    // Books matching every given criterion: best title/author matches first, otherwise id order
+    List<BookDTO> search(BookSearchCriteria criteria, Limit limit);
+    
+    // Pass every book matching the criteria to action, in id order, without holding them in memory.
+    // Returns the number of books
+    long forEachMatching(BookSearchCriteria criteria, int fetchSize, Consumer<BookDTO> action);
+    
+    // Counts of the books matching the criteria, grouped by the database: [facet, value, count] rows like
+    // BookRepository.findFacetCounts, for the total, every category and year, and the authorLimit top authors
+    List<Object[]> countFacets(BookSearchCriteria criteria, int authorLimit);
+}
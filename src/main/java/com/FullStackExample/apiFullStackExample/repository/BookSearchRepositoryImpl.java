@@ -0,0 +1,159 @@
+package com.FullStackExample.apiFullStackExample.repository;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// One statement per combination of filters instead of a single query testing "(:x IS NULL OR ...)" for each:
+// the planner then sees only the conditions that apply and uses their indexes (trigram for title and author,
+// idx_book_category_year, idx_book_publication_year). The text only depends on which filters are given, so
+// Hibernate's query plan cache and the driver's server-side prepared statements are reused per combination
+class BookSearchRepositoryImpl implements BookSearchRepository {
+    
+    private static final String TITLE_SIMILARITY = "FUNCTION('similarity', LOWER(b.title), LOWER(:title))";
+    private static final String AUTHOR_SIMILARITY = "FUNCTION('similarity', LOWER(b.author), LOWER(:author))";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<BookDTO> search(BookSearchCriteria criteria, Limit limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String jpql = "SELECT " + BookRepository.BOOK_DTO + " FROM Book b" + where(criteria, parameters) +
+                      " ORDER BY " + orderBy(criteria);
+        
+        TypedQuery<BookDTO> query = entityManager.createQuery(jpql, BookDTO.class);
+        parameters.forEach(query::setParameter);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+    
+    // The rows are read through a forward-only cursor by a stateless session on the transaction's connection:
+    // no persistence context, no entity events, and the driver holds at most fetchSize rows at a time.
+    // The stateless session does not see the transaction's pending changes, so they are flushed first
+    @Override
+    public long forEachMatching(BookSearchCriteria criteria, int fetchSize, Consumer<BookDTO> action) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String jpql = "SELECT " + BookRepository.BOOK_DTO + " FROM Book b" + where(criteria, parameters) +
+                      " ORDER BY b.id";
+        
+        Session session = entityManager.unwrap(Session.class);
+        session.flush();
+        return session.doReturningWork(connection -> {
+            try (StatelessSession stateless = session.getSessionFactory()
+                                                     .withStatelessOptions()
+                                                     .connection(connection)
+                                                     .openStatelessSession()) {
+                SelectionQuery<BookDTO> query = stateless.createSelectionQuery(jpql, BookDTO.class);
+                parameters.forEach(query::setParameter);
+                query.setFetchSize(fetchSize);
+                long rows = 0;
+                try (ScrollableResults<BookDTO> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (results.next()) {
+                        action.accept(results.get());
+                        rows++;
+                    }
+                }
+                return rows;
+            }
+        });
+    }
+    
+    // Three GROUP BY queries over the matching rows (categories, with the total as their sum; years; top
+    // authors), so only the counts leave the database whatever the number of matching books
+    @Override
+    public List<Object[]> countFacets(BookSearchCriteria criteria, int authorLimit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String where = where(criteria, parameters);
+        
+        List<Object[]> rows = new ArrayList<>();
+        long total = 0;
+        for (Object[] row : groupCounts("b.category", where, parameters, Limit.unlimited())) {
+            total += (Long) row[1];
+            rows.add(new Object[] {"category", row[0], row[1]});
+        }
+        rows.add(new Object[] {"total", "", total});
+        for (Object[] row : groupCounts("b.publicationYear", where, parameters, Limit.unlimited())) {
+            if (row[0] != null) {
+                rows.add(new Object[] {"year", String.valueOf(row[0]), row[1]});
+            }
+        }
+        for (Object[] row : groupCounts("b.author", where, parameters, Limit.of(authorLimit))) {
+            rows.add(new Object[] {"author", row[0], row[1]});
+        }
+        return rows;
+    }
+    
+    // [value, count] per value of the column, most books first
+    private List<Object[]> groupCounts(String column, String where, Map<String, Object> parameters, Limit limit) {
+        String jpql = "SELECT " + column + ", COUNT(b) FROM Book b" + where +
+                      " GROUP BY " + column + " ORDER BY COUNT(b) DESC, " + column;
+        
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        parameters.forEach(query::setParameter);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+    
+    // A condition per given filter, with its parameter
+    private static String where(BookSearchCriteria criteria, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.getTitle() != null) {
+            conditions.add("LOWER(b.title) LIKE LOWER(CONCAT('%', :title, '%'))");
+            parameters.put("title", criteria.getTitle());
+        }
+        if (criteria.getAuthor() != null) {
+            conditions.add("LOWER(b.author) LIKE LOWER(CONCAT('%', :author, '%'))");
+            parameters.put("author", criteria.getAuthor());
+        }
+        if (criteria.getCategory() != null) {
+            conditions.add("b.category = :category");
+            parameters.put("category", criteria.getCategory());
+        }
+        if (criteria.getPublicationYear() != null) {
+            conditions.add("b.publicationYear = :publicationYear");
+            parameters.put("publicationYear", criteria.getPublicationYear());
+        }
+        if (criteria.getStartYear() != null) {
+            conditions.add("b.publicationYear >= :startYear");
+            parameters.put("startYear", criteria.getStartYear());
+        }
+        if (criteria.getEndYear() != null) {
+            conditions.add("b.publicationYear <= :endYear");
+            parameters.put("endYear", criteria.getEndYear());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+    
+    // Ranked by title and author similarity when searching text, then by id so equal ranks keep a stable order
+    private static String orderBy(BookSearchCriteria criteria) {
+        if (criteria.getTitle() != null && criteria.getAuthor() != null) {
+            return "CAST(" + TITLE_SIMILARITY + " AS Double) + CAST(" + AUTHOR_SIMILARITY + " AS Double) DESC, b.id";
+        }
+        if (criteria.getTitle() != null) {
+            return TITLE_SIMILARITY + " DESC, b.id";
+        }
+        if (criteria.getAuthor() != null) {
+            return AUTHOR_SIMILARITY + " DESC, b.id";
+        }
+        return "b.id";
+    }
+}
@@ -0,0 +1,295 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.datasource.ReadRouting;
+import com.FullStackExample.apiFullStackExample.dto.BookChangeDTO;
+import com.FullStackExample.apiFullStackExample.exception.ChangeLogPrunedException;
+import com.FullStackExample.apiFullStackExample.repository.BookChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Tails the book change log for replicas. A single poller reads newly committed changes and keeps the
+// most recent ones in memory, so however many subscribers are connected the database sees one indexed
+// range query per poll interval. Subscribers further behind than the buffer catch up with paged reads
+// from the database, then continue from memory. The poller also prunes changes past the retention period.
+// Writers number their changes without a lock (V10), so a change can become visible after higher numbered
+// ones. The poller only moves past a missing position once it shows up or once every transaction that could
+// still write it has ended (snapshot xmin past the xmax seen with the gap): positions handed out never skip
+// a change committed later
+@Component
+public class BookChangeFeed implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BookChangeFeed.class);
+
+    // Changes read per database query
+    private static final int READ_BATCH = 1000;
+
+    @Autowired
+    private BookChangeRepository changeRepository;
+
+    @Value("${books.changes.poll-interval:100ms}")
+    private Duration pollInterval;
+
+    @Value("${books.changes.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${books.changes.retention:7d}")
+    private Duration retention;
+
+    @Value("${books.changes.prune-interval:1h}")
+    private Duration pruneInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    // Ring buffer of the latest changes in log order. Every committed change after floor, up to head,
+    // is in the buffer
+    private BookChangeDTO[] buffer;
+    private int start;
+    private int size;
+    private long floor;
+    private long head;
+
+    // Gaps up to pendingUpTo are final once the oldest running transaction is at or past pendingHorizon
+    // (0: no gap pending). Only used by the poller
+    private long pendingHorizon;
+    private long pendingUpTo;
+
+    private volatile boolean running;
+    private Thread poller;
+
+    // Started with the other lifecycle beans rather than at bean creation, so a context that exits once it is
+    // refreshed (the CDS training run in the Dockerfile) needs no database; before the web server takes requests
+    @Override
+    public void start() {
+        buffer = new BookChangeDTO[bufferSize];
+        head = changeRepository.findLatestSeq();
+        awaitTransactionsBefore(changeRepository.findNextXid());
+        floor = head;
+        running = true;
+        poller = Thread.ofPlatform().name("book-change-poller").daemon().start(this::poll);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        poller.interrupt();
+        try {
+            poller.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // Position of the latest change read from the log
+    public long getLatestSeq() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Fail fast on positions older than the retention period (ChangeLogPrunedException)
+    public void checkPosition(long afterSeq) {
+        if (afterSeq < getFloor()) {
+            long prunedSeq = changeRepository.findPrunedSeq();
+            if (afterSeq < prunedSeq) {
+                throw new ChangeLogPrunedException(afterSeq, prunedSeq);
+            }
+        }
+    }
+
+    // Up to limit changes after the given position, in log order. When there is none yet, waits up to
+    // maxWait for one to be committed and returns an empty list if none comes.
+    // Positions older than the retention period throw ChangeLogPrunedException
+    public List<BookChangeDTO> next(long afterSeq, int limit, Duration maxWait) throws InterruptedException {
+        long upToSeq;
+        lock.lock();
+        try {
+            if (afterSeq >= floor) {
+                long remaining = maxWait.toNanos();
+                while (head <= afterSeq) {
+                    if (remaining <= 0) {
+                        return List.of();
+                    }
+                    remaining = changed.awaitNanos(remaining);
+                }
+                return buffered(afterSeq, limit);
+            }
+            upToSeq = head;
+        } finally {
+            lock.unlock();
+        }
+
+        // Behind the buffer: catch up from the database, not past the changes the poller has let through
+        long prunedSeq = changeRepository.findPrunedSeq();
+        if (afterSeq < prunedSeq) {
+            throw new ChangeLogPrunedException(afterSeq, prunedSeq);
+        }
+        return changeRepository.findChangesBetween(afterSeq, upToSeq, Limit.of(limit));
+    }
+
+    private long getFloor() {
+        lock.lock();
+        try {
+            return floor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Buffered changes after the given position (called with the lock held)
+    private List<BookChangeDTO> buffered(long afterSeq, int limit) {
+        // First buffered change after the position (binary search on seq)
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (at(mid).getSeq() <= afterSeq) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = Math.min(size, low + limit);
+        List<BookChangeDTO> changes = new ArrayList<>(end - low);
+        for (int i = low; i < end; i++) {
+            changes.add(at(i));
+        }
+        return changes;
+    }
+
+    private BookChangeDTO at(int index) {
+        return buffer[(start + index) % buffer.length];
+    }
+
+    private void append(List<BookChangeDTO> changes) {
+        lock.lock();
+        try {
+            for (BookChangeDTO change : changes) {
+                if (size == buffer.length) {
+                    // Evict the oldest change: from now on it is only served from the database
+                    floor = buffer[start].getSeq();
+                    buffer[start] = null;
+                    start = (start + 1) % buffer.length;
+                    size--;
+                }
+                buffer[(start + size) % buffer.length] = change;
+                size++;
+                head = change.getSeq();
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void poll() {
+        long nextPrune = System.nanoTime();
+        while (running) {
+            try {
+                // Read before the changes, so the transactions it shows as ended are visible to that read
+                long oldestRunning = pendingHorizon != 0 ? changeRepository.findOldestRunningXid() : 0;
+                long settledUpTo = head;
+                if (pendingHorizon != 0 && oldestRunning >= pendingHorizon) {
+                    settledUpTo = Math.max(head, pendingUpTo);
+                    pendingHorizon = 0;
+                }
+                List<BookChangeDTO> changes = changeRepository.findChangesAfter(head, Limit.of(READ_BATCH));
+                List<BookChangeDTO> ready = untilGap(changes, settledUpTo);
+                if (!ready.isEmpty()) {
+                    append(ready);
+                }
+                if (ready.size() < changes.size() && pendingHorizon == 0) {
+                    // The positions missing before the rest were handed out before this read, to transactions
+                    // that are still committing or have aborted; all of them started before the next xid
+                    pendingUpTo = changes.get(changes.size() - 1).getSeq();
+                    pendingHorizon = changeRepository.findNextXid();
+                }
+                if (System.nanoTime() - nextPrune >= 0) {
+                    nextPrune = System.nanoTime() + pruneInterval.toNanos();
+                    prune();
+                }
+                // A full batch let through means more changes are waiting
+                if (ready.size() < READ_BATCH) {
+                    Thread.sleep(pollInterval);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Reading the book change log failed, retrying", e);
+                try {
+                    Thread.sleep(pollInterval.multipliedBy(10));
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } finally {
+                // Each poll picks a replica again (positions only move forward, a lagging one just returns less)
+                ReadRouting.reset();
+            }
+        }
+    }
+
+    // The changes up to the first missing position after settledUpTo (positions up to it are known to be final)
+    private List<BookChangeDTO> untilGap(List<BookChangeDTO> changes, long settledUpTo) {
+        long upTo = settledUpTo;
+        int end = 0;
+        while (end < changes.size() && changes.get(end).getSeq() <= upTo + 1) {
+            upTo = Math.max(upTo, changes.get(end).getSeq());
+            end++;
+        }
+        return end == changes.size() ? changes : changes.subList(0, end);
+    }
+
+    // Changes up to the start position may still be committing: wait for the transactions running at startup
+    // to end, so the position is final before anyone is told it
+    private void awaitTransactionsBefore(long horizon) {
+        long waitingSince = System.nanoTime();
+        long nextWarning = waitingSince + TimeUnit.SECONDS.toNanos(10);
+        while (changeRepository.findOldestRunningXid() < horizon) {
+            if (System.nanoTime() - nextWarning >= 0) {
+                nextWarning += TimeUnit.SECONDS.toNanos(10);
+                log.warn("Change feed start waiting {} s for writing transactions older than xid {} to end",
+                        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - waitingSince), horizon);
+            }
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting the change feed", e);
+            }
+        }
+    }
+
+    private void prune() {
+        try {
+            changeRepository.pruneChangesBefore(Instant.now().minus(retention));
+        } catch (RuntimeException e) {
+            log.warn("Pruning the book change log failed", e);
+        }
+    }
+}
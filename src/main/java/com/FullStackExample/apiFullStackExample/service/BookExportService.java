@@ -0,0 +1,130 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Export of the catalog, or of the books matching search criteria, as CSV or NDJSON.
+// Rows come from a forward-only cursor in fetch-size chunks and are written to the output as they arrive,
+// so memory use does not depend on the number of books
+@Service
+public class BookExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookExportService.class);
+
+    static final String CSV_HEADER = "id,title,author,publicationYear,category,version";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${books.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Write the matching books as CSV, with a header line
+    public long exportCsv(BookSearchCriteria criteria, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = export("csv", criteria, book -> {
+            try {
+                writer.write(String.valueOf(book.getId()));
+                writer.write(',');
+                BookCsv.writeField(writer, book.getTitle());
+                writer.write(',');
+                BookCsv.writeField(writer, book.getAuthor());
+                writer.write(',');
+                // An empty field for a book with no year, which the import reads back as no year
+                if (book.getPublicationYear() != null) {
+                    writer.write(String.valueOf(book.getPublicationYear()));
+                }
+                writer.write(',');
+                BookCsv.writeField(writer, book.getCategory());
+                writer.write(',');
+                writer.write(String.valueOf(book.getVersion()));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    // Write the matching books as newline-delimited JSON, one book object per line
+    public long exportNdjson(BookSearchCriteria criteria, OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory()
+                                              .createGenerator(new BufferedWriter(
+                                                      new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE));
+        // Lines are separated by the newline written after each book, not by the default space.
+        // The response stream is left open for the container, and only flushed once the buffer is full
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        ObjectWriter bookWriter = objectMapper.writerFor(BookDTO.class)
+                                              .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rows = export("ndjson", criteria, book -> {
+            try {
+                bookWriter.writeValue(generator, book);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+        return rows;
+    }
+
+    private long export(String format, BookSearchCriteria criteria, Consumer<BookDTO> writer) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try {
+            rows = bookRepository.forEachMatching(criteria, fetchSize, writer);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away
+            throw e.getCause();
+        }
+        long nanos = System.nanoTime() - start;
+        Timer.builder("books.export")
+             .description("Time to export books")
+             .tag("format", format)
+             .register(meterRegistry)
+             .record(nanos, TimeUnit.NANOSECONDS);
+        Counter.builder("books.export.rows")
+               .description("Books exported")
+               .tag("format", format)
+               .register(meterRegistry)
+               .increment(rows);
+        log.info("Export finished: {} {} rows in {} ms ({} rows/s)", rows, format,
+                TimeUnit.NANOSECONDS.toMillis(nanos), nanos == 0 ? 0 : rows * 1_000_000_000L / nanos);
+        return rows;
+    }
+}
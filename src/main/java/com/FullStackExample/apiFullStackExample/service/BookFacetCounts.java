@@ -0,0 +1,76 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookFacetsDTO;
+import com.FullStackExample.apiFullStackExample.dto.FacetCountDTO;
+import com.FullStackExample.apiFullStackExample.dto.YearBucketCountDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Book counts per category, author and publication year, filled from the facet summary table,
+// GROUP BY queries or the search index, and turned into the response shape
+final class BookFacetCounts {
+
+    private static final Comparator<FacetCountDTO> LARGEST_FIRST =
+            Comparator.comparingLong(FacetCountDTO::getCount).reversed().thenComparing(FacetCountDTO::getValue);
+
+    private long total;
+    private final Map<String, Long> categories = new HashMap<>();
+    private final Map<String, Long> authors = new HashMap<>();
+    private final Map<Integer, Long> years = new TreeMap<>();
+
+    void add(BookDTO book) {
+        total++;
+        categories.merge(book.getCategory(), 1L, Long::sum);
+        authors.merge(book.getAuthor(), 1L, Long::sum);
+        if (book.getPublicationYear() != null) {
+            years.merge(book.getPublicationYear(), 1L, Long::sum);
+        }
+    }
+
+    // A row of book_facet_count (see V7__book_facet_count.sql)
+    void addSummary(String facet, String value, long count) {
+        switch (facet) {
+            case "total" -> total += count;
+            case "category" -> categories.merge(value, count, Long::sum);
+            case "author" -> authors.merge(value, count, Long::sum);
+            case "year" -> years.merge(Integer.valueOf(value), count, Long::sum);
+            default -> throw new IllegalArgumentException("Unknown facet: " + facet);
+        }
+    }
+
+    // Books without a category are not listed; only the authors with most books are
+    BookFacetsDTO toDTO(int yearBucketSize, int authorLimit) {
+        List<FacetCountDTO> categoryCounts = new ArrayList<>();
+        categories.forEach((category, count) -> {
+            if (category != null) {
+                categoryCounts.add(new FacetCountDTO(category, count));
+            }
+        });
+        categoryCounts.sort(LARGEST_FIRST);
+
+        List<FacetCountDTO> authorCounts = new ArrayList<>();
+        authors.forEach((author, count) -> authorCounts.add(new FacetCountDTO(author, count)));
+        authorCounts.sort(LARGEST_FIRST);
+
+        // Years are sorted, so each bucket is complete when the next one starts
+        List<YearBucketCountDTO> yearBuckets = new ArrayList<>();
+        YearBucketCountDTO bucket = null;
+        for (Map.Entry<Integer, Long> year : years.entrySet()) {
+            int startYear = Math.floorDiv(year.getKey(), yearBucketSize) * yearBucketSize;
+            if (bucket == null || bucket.getStartYear() != startYear) {
+                bucket = new YearBucketCountDTO(startYear, startYear + yearBucketSize - 1, 0);
+                yearBuckets.add(bucket);
+            }
+            bucket.setCount(bucket.getCount() + year.getValue());
+        }
+
+        return new BookFacetsDTO(total, categoryCounts,
+                authorCounts.subList(0, Math.min(authorLimit, authorCounts.size())), yearBuckets);
+    }
+}
@@ -0,0 +1,267 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.config.CacheConfig;
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookImportResultDTO;
+import com.FullStackExample.apiFullStackExample.entity.Book;
+import com.FullStackExample.apiFullStackExample.repository.BookRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Bulk import of books from NDJSON or CSV bodies.
+// The body is read as a stream and inserted in batches: one duplicate-check query and one
+// transaction per batch, with Hibernate batching the inserts. Memory is bounded by the batch size.
+@Service
+public class BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookReadCoalescer readCoalescer;
+
+    @Value("${books.import.batch-size:500}")
+    private int batchSize;
+
+    // Import books from newline-delimited JSON, one book object per line
+    public BookImportResultDTO importNdjson(InputStream input) throws IOException {
+        return importLines(input, false);
+    }
+
+    // Import books from CSV with a header line naming the title, author, publicationYear and category columns
+    public BookImportResultDTO importCsv(InputStream input) throws IOException {
+        return importLines(input, true);
+    }
+
+    private BookImportResultDTO importLines(InputStream input, boolean csv) throws IOException {
+        long start = System.nanoTime();
+        BookImportResultDTO result = new BookImportResultDTO();
+        List<BookDTO> batch = new ArrayList<>(batchSize);
+        Map<String, Integer> columns = null;
+        long lineNumber = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && columns == null) {
+                columns = parseCsvHeader(line);
+                continue;
+            }
+            result.setRowsRead(result.getRowsRead() + 1);
+
+            BookDTO book;
+            try {
+                book = csv ? parseCsvRow(line, columns) : objectMapper.readValue(line, BookDTO.class);
+            } catch (JsonProcessingException e) {
+                result.addError(lineNumber, e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                result.addError(lineNumber, e.getMessage());
+                continue;
+            }
+            String violations = validate(book);
+            if (violations != null) {
+                result.addError(lineNumber, violations);
+                continue;
+            }
+
+            // Ids are always generated
+            book.setId(null);
+            batch.add(book);
+            if (batch.size() >= batchSize) {
+                insertBatch(batch, result, start);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, result, start);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setRowsPerSecond(rowsPerSecond(result.getRowsRead(), elapsedNanos));
+        log.info("Import finished: {} rows read, {} inserted, {} duplicates, {} invalid in {} ms ({} rows/s)",
+                result.getRowsRead(), result.getInserted(), result.getDuplicates(), result.getInvalid(),
+                result.getElapsedMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    private void insertBatch(List<BookDTO> batch, BookImportResultDTO result, long importStart) {
+        long batchStart = System.nanoTime();
+
+        List<Book> books;
+        try {
+            books = saveNewBooks(batch);
+        } catch (DataIntegrityViolationException e) {
+            // Another writer stored one of these books after the duplicate check: check again once
+            if (!BookService.isTitleAuthorConflict(e)) {
+                throw e;
+            }
+            books = saveNewBooks(batch);
+        }
+        if (!books.isEmpty()) {
+            afterInsert(books);
+        }
+        result.setInserted(result.getInserted() + books.size());
+        result.setDuplicates(result.getDuplicates() + batch.size() - books.size());
+        result.setBatches(result.getBatches() + 1);
+
+        log.info("Import batch {}: {} inserted in {} ms, {} rows read so far ({} rows/s)",
+                result.getBatches(), books.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart),
+                result.getRowsRead(), Math.round(rowsPerSecond(result.getRowsRead(), System.nanoTime() - importStart)));
+    }
+
+    // Insert the books of the batch whose title+author pair is not stored yet, in one transaction.
+    // One set-based query returns the pairs of this batch that are already stored; earlier batches
+    // are committed, so duplicates across batches are caught too
+    private List<Book> saveNewBooks(List<BookDTO> batch) {
+        Set<String> titles = batch.stream().map(BookDTO::getTitle).collect(Collectors.toSet());
+        Set<String> authors = batch.stream().map(BookDTO::getAuthor).collect(Collectors.toSet());
+        Set<String> knownPairs = new HashSet<>();
+        for (Object[] pair : bookRepository.findTitleAuthorPairs(titles, authors)) {
+            knownPairs.add(pairKey((String) pair[0], (String) pair[1]));
+        }
+
+        List<Book> books = new ArrayList<>(batch.size());
+        for (BookDTO book : batch) {
+            if (knownPairs.add(pairKey(book.getTitle(), book.getAuthor()))) {
+                books.add(BookService.convertToEntity(book));
+            }
+        }
+        if (!books.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> bookRepository.saveAll(books));
+        }
+        return books;
+    }
+
+    // Keep the search index, caches and coalesced reads in line with the committed batch
+    private void afterInsert(List<Book> books) {
+        readCoalescer.invalidate();
+        Cache bookById = cacheManager.getCache(CacheConfig.BOOK_BY_ID);
+        for (Book book : books) {
+            BookDTO imported = BookService.convertToDTO(book);
+            searchIndex.index(imported);
+            // Replaces a cached "not found" for the id
+            if (bookById != null) {
+                bookById.put(imported.getId(), imported);
+            }
+        }
+        for (String cacheName : List.of(CacheConfig.BOOK_CATEGORIES, CacheConfig.BOOK_AUTHORS)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    // Map normalized column names (case and underscores ignored) to their position
+    private Map<String, Integer> parseCsvHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = BookCsv.parseLine(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(normalizeColumn(names.get(i)), i);
+        }
+        if (!columns.containsKey("title") || !columns.containsKey("author")) {
+            throw new IllegalArgumentException("CSV header must contain title and author columns");
+        }
+        return columns;
+    }
+
+    private BookDTO parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = BookCsv.parseLine(line);
+        String year = field(fields, columns, "publicationyear");
+        Integer publicationYear;
+        try {
+            publicationYear = year == null ? null : Integer.valueOf(year);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid publication year: " + year);
+        }
+        return new BookDTO(
+                field(fields, columns, "title"),
+                field(fields, columns, "author"),
+                publicationYear,
+                field(fields, columns, "category")
+        );
+    }
+
+    // Trimmed field value, or null when the column is missing or empty
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private String validate(BookDTO book) {
+        Set<ConstraintViolation<BookDTO>> violations = validator.validate(book);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String normalizeColumn(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String pairKey(String title, String author) {
+        return title + '\u0000' + author;
+    }
+
+    private static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.datasource.ReadRouting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Fills the in-memory search index from the database in the background once the application is up.
+// Until it finishes, searches keep going to the database.
+@Component
+public class BookIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(BookIndexLoader.class);
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookSearchIndex searchIndex;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private TaskExecutor taskExecutor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (searchIndex.isEnabled()) {
+            taskExecutor.execute(this::load);
+        }
+    }
+
+    private void load() {
+        try {
+            long start = System.nanoTime();
+            // From the primary: writes made while loading are applied to the index on top of this snapshot
+            ReadRouting.onPrimary(() -> bookService.streamAllBooks(searchIndex::load));
+            searchIndex.markReady();
+            log.info("Search index loaded with {} books in {} ms", searchIndex.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Search index could not be loaded, searches will use the database", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Single flight for identical concurrent reads (see BookService): the first caller for a key runs the query,
+// callers arriving while it runs wait for its result instead of running their own. In-flight calls are kept in
+// a concurrent map and are joined, replaced and removed with atomic map operations only, never under a lock.
+// Writes: each committed write starts a new generation, and a caller only joins a call started in the current
+// one, so it never gets a result read before a write that had finished when it arrived.
+// Results are shared between the callers of a flight and must not be modified
+@Component
+public class BookReadCoalescer {
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Key, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public BookReadCoalescer(@Value("${books.coalescing.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // The result of query, or of the identical call already running. parameters identify the call within the
+    // operation and must be normalized by the caller (defaults applied, equals and hashCode by value)
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object parameters, Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+        Meters operationMeters = meters(operation);
+        Key key = new Key(operation, parameters);
+        Flight own = new Flight(generation.get());
+        while (true) {
+            Flight running = inFlight.putIfAbsent(key, own);
+            if (running == null) {
+                break;
+            }
+            if (running.generation >= own.generation) {
+                operationMeters.joined.increment();
+                return (T) running.await();
+            }
+            // Started before the last write: later callers join this call instead, its own callers keep theirs
+            if (inFlight.replace(key, running, own)) {
+                break;
+            }
+        }
+        operationMeters.executed.increment();
+        try {
+            T result = query.get();
+            own.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    // A write has committed: calls already running may have read the data before it
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    // Calls running right now
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private Meters meters(String operation) {
+        return meters.computeIfAbsent(operation, name -> new Meters(name, meterRegistry));
+    }
+
+    private record Key(String operation, Object parameters) {
+    }
+
+    private static final class Flight {
+
+        private final long generation;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(long generation) {
+            this.generation = generation;
+        }
+
+        // The leader's result, or the exception it threw
+        Object await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Calls that ran their own query and calls that joined one, per operation. The coalescing ratio is the
+    // share of joined calls since startup; rate(joined) / (rate(executed) + rate(joined)) gives it over time
+    private static final class Meters {
+
+        private final Counter executed;
+        private final Counter joined;
+
+        Meters(String operation, MeterRegistry meterRegistry) {
+            this.executed = Counter.builder("books.coalescing.calls")
+                    .description("Reads that ran their own query (executed) or shared an identical one already running (joined)")
+                    .tag("operation", operation)
+                    .tag("outcome", "executed")
+                    .register(meterRegistry);
+            this.joined = Counter.builder("books.coalescing.calls")
+                    .description("Reads that ran their own query (executed) or shared an identical one already running (joined)")
+                    .tag("operation", operation)
+                    .tag("outcome", "joined")
+                    .register(meterRegistry);
+            Gauge.builder("books.coalescing.ratio", this, Meters::ratio)
+                    .description("Share of reads answered by an identical read already running")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+        }
+
+        double ratio() {
+            double total = executed.count() + joined.count();
+            return total == 0 ? 0 : joined.count() / total;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.dto.BookSuggestionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over the catalog, so searches are answered without a database round trip.
+// Books are numbered densely in id order (doc numbers); title and author words are kept in sorted posting
+// lists of doc numbers (primitive int arrays) and matched by prefix; category and publication year are
+// kept as facet bitmaps. All given criteria
+// are combined with AND. Distinct titles and authors are also kept in a trie each for autocomplete (see
+// BookSuggestTrie). The index only sees writes made through this instance's BookService. Write hooks may run
+// out of commit order, so a book older than the indexed version, or one already deleted, is ignored.
+@Component
+public class BookSearchIndex {
+
+    public static final String TITLE = "title";
+    public static final String AUTHOR = "author";
+
+    // Deleted books leave holes in the doc numbers; past this many (and past the number of books) they are closed
+    private static final int MIN_HOLES_BEFORE_RENUMBERING = 1024;
+
+    // Deleted ids remembered against late writes; the oldest are forgotten past this many
+    private static final int MAX_DELETED_IDS = 100_000;
+
+    // Exact prefix matches before typos, then most books first
+    private static final Comparator<BookSuggestionDTO> BEST_SUGGESTIONS_FIRST =
+            Comparator.comparing(BookSuggestionDTO::isFuzzy)
+                      .thenComparing(Comparator.comparingLong(BookSuggestionDTO::getCount).reversed())
+                      .thenComparing(BookSuggestionDTO::getText, String.CASE_INSENSITIVE_ORDER);
+
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final NavigableMap<String, PostingList> titleTerms = new TreeMap<>();
+    private final NavigableMap<String, PostingList> authorTerms = new TreeMap<>();
+    private final Map<String, BitSet> categoryFacets = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> yearFacets = new TreeMap<>();
+    private final Map<Integer, BookDTO> documents = new HashMap<>();
+    private final Map<Long, Integer> docsById = new HashMap<>();
+    private final BitSet allDocuments = new BitSet();
+    private final BookSuggestTrie titleSuggestions = new BookSuggestTrie(TITLE);
+    private final BookSuggestTrie authorSuggestions = new BookSuggestTrie(AUTHOR);
+
+    // Tombstones: ids come from a sequence and are never reused, so once deleted a book never comes back and
+    // any write or loaded row for it that arrives after the delete is stale, whatever its version
+    private final Set<Long> deletedIds = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_DELETED_IDS;
+        }
+    });
+    private volatile boolean ready;
+
+    // Doc numbers are handed out in arrival order. Ids are not dense (they are allocated in blocks and
+    // deleted books leave holes) and may arrive out of order, so the index is renumbered when needed
+    private int nextDoc;
+    private long lastId = Long.MIN_VALUE;
+    private boolean inIdOrder = true;
+
+    public BookSearchIndex(@Value("${books.search.in-memory.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Whether searches can be answered from memory
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add or replace a book that has just been written, unless a newer version or its delete got there first
+    public void index(BookDTO book) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            BookDTO current = indexed(book.getId());
+            if (!deletedIds.contains(book.getId()) && (current == null || !isOlder(book, current))) {
+                put(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a book read by the initial load, unless a write of the same or a newer version already reached the
+    // index (writes without a version always win over the load)
+    public void load(BookDTO book) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            BookDTO current = indexed(book.getId());
+            if (!deletedIds.contains(book.getId()) && (current == null || isOlder(current, book))) {
+                put(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Remove a book that has just been deleted
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            deletedIds.add(id);
+            Integer doc = docsById.remove(id);
+            if (doc != null) {
+                removeDocument(doc);
+                if (nextDoc - documents.size() > Math.max(documents.size(), MIN_HOLES_BEFORE_RENUMBERING)) {
+                    renumber();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called once the initial load has gone through the whole table
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            if (!inIdOrder) {
+                renumber();
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Books matching every given criterion, in id order, at most limit
+    public List<BookDTO> search(BookSearchCriteria criteria, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matching(criteria);
+            List<BookDTO> results = new ArrayList<>(Math.min(matches.cardinality(), limit));
+            for (int doc = matches.nextSetBit(0); doc >= 0 && results.size() < limit; doc = matches.nextSetBit(doc + 1)) {
+                results.add(documents.get(doc));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Count the books matching every given criterion per category, author and year
+    void countFacets(BookSearchCriteria criteria, BookFacetCounts counts) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matching(criteria);
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                counts.add(documents.get(doc));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Titles and authors (field TITLE or AUTHOR, null for both) with a word starting with the query, then
+    // those within one typo of it, at most limit
+    public List<BookSuggestionDTO> suggest(String query, String field, int limit) {
+        lock.readLock().lock();
+        try {
+            if (TITLE.equals(field)) {
+                return titleSuggestions.suggest(query, limit);
+            }
+            if (AUTHOR.equals(field)) {
+                return authorSuggestions.suggest(query, limit);
+            }
+            List<BookSuggestionDTO> suggestions = titleSuggestions.suggest(query, limit);
+            suggestions.addAll(authorSuggestions.suggest(query, limit));
+            suggestions.sort(BEST_SUGGESTIONS_FIRST);
+            return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Called with the read lock held
+    private BitSet matching(BookSearchCriteria criteria) {
+        BitSet matches = (BitSet) allDocuments.clone();
+
+        if (criteria.getTitle() != null) {
+            andTerms(matches, titleTerms, criteria.getTitle());
+        }
+        if (criteria.getAuthor() != null) {
+            andTerms(matches, authorTerms, criteria.getAuthor());
+        }
+        if (criteria.getCategory() != null) {
+            andFacet(matches, categoryFacets.get(criteria.getCategory()));
+        }
+        if (criteria.getPublicationYear() != null) {
+            andFacet(matches, yearFacets.get(criteria.getPublicationYear()));
+        }
+        if (criteria.hasYearRange()) {
+            BitSet range = new BitSet();
+            yearRange(criteria.getStartYear(), criteria.getEndYear()).values().forEach(range::or);
+            matches.and(range);
+        }
+        return matches;
+    }
+
+    // Year postings between the given years, inclusive; a null end leaves that side open
+    private NavigableMap<Integer, BitSet> yearRange(Integer startYear, Integer endYear) {
+        if (startYear == null) {
+            return yearFacets.headMap(endYear, true);
+        }
+        if (endYear == null) {
+            return yearFacets.tailMap(startYear, true);
+        }
+        if (startYear > endYear) {
+            return Collections.emptyNavigableMap();
+        }
+        return yearFacets.subMap(startYear, true, endYear, true);
+    }
+
+    // Split text into lower-case, accent-free words
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    // Every word of the query must be a prefix of some word in the field
+    private void andTerms(BitSet matches, NavigableMap<String, PostingList> terms, String query) {
+        for (String token : tokenize(query)) {
+            BitSet tokenMatches = new BitSet();
+            terms.subMap(token, true, token + Character.MAX_VALUE, false)
+                 .values()
+                 .forEach(postings -> postings.addTo(tokenMatches));
+            matches.and(tokenMatches);
+        }
+    }
+
+    private void andFacet(BitSet matches, BitSet facet) {
+        if (facet == null) {
+            matches.clear();
+        } else {
+            matches.and(facet);
+        }
+    }
+
+    // The indexed version of a book, or null. Called with a lock held
+    private BookDTO indexed(Long id) {
+        Integer doc = docsById.get(id);
+        return doc == null ? null : documents.get(doc);
+    }
+
+    // Whether book is an older version than other; books without a version are never older
+    private static boolean isOlder(BookDTO book, BookDTO other) {
+        return book.getVersion() != null && other.getVersion() != null && book.getVersion() < other.getVersion();
+    }
+
+    // Add or replace a book: a new book gets the next doc number, an updated one keeps its own
+    private void put(BookDTO book) {
+        Integer doc = docsById.get(book.getId());
+        if (doc != null) {
+            removeDocument(doc);
+            addDocument(doc, book);
+            return;
+        }
+        if (book.getId() < lastId) {
+            inIdOrder = false;
+        }
+        lastId = Math.max(lastId, book.getId());
+        docsById.put(book.getId(), nextDoc);
+        addDocument(nextDoc++, book);
+        // Before the index is ready, markReady renumbers once
+        if (!inIdOrder && ready) {
+            renumber();
+        }
+    }
+
+    // Number the books again, densely and in id order, so results come out in id order and the bitmaps
+    // stay as small as the catalog. The suggestion tries do not depend on doc numbers and are kept
+    private void renumber() {
+        List<BookDTO> books = new ArrayList<>(documents.values());
+        books.sort(Comparator.comparing(BookDTO::getId));
+        titleTerms.clear();
+        authorTerms.clear();
+        categoryFacets.clear();
+        yearFacets.clear();
+        documents.clear();
+        docsById.clear();
+        allDocuments.clear();
+        nextDoc = 0;
+        for (BookDTO book : books) {
+            docsById.put(book.getId(), nextDoc);
+            addPostings(nextDoc++, book);
+        }
+        lastId = books.isEmpty() ? Long.MIN_VALUE : books.get(books.size() - 1).getId();
+        inIdOrder = true;
+    }
+
+    private void addDocument(int doc, BookDTO book) {
+        addPostings(doc, book);
+        titleSuggestions.add(book.getTitle());
+        authorSuggestions.add(book.getAuthor());
+    }
+
+    private void addPostings(int doc, BookDTO book) {
+        documents.put(doc, book);
+        allDocuments.set(doc);
+        for (String token : tokenize(book.getTitle())) {
+            titleTerms.computeIfAbsent(token, t -> new PostingList()).add(doc);
+        }
+        for (String token : tokenize(book.getAuthor())) {
+            authorTerms.computeIfAbsent(token, t -> new PostingList()).add(doc);
+        }
+        if (book.getCategory() != null) {
+            categoryFacets.computeIfAbsent(book.getCategory(), c -> new BitSet()).set(doc);
+        }
+        if (book.getPublicationYear() != null) {
+            yearFacets.computeIfAbsent(book.getPublicationYear(), y -> new BitSet()).set(doc);
+        }
+    }
+
+    private void removeDocument(int doc) {
+        BookDTO book = documents.remove(doc);
+        if (book == null) {
+            return;
+        }
+        allDocuments.clear(doc);
+        for (String token : tokenize(book.getTitle())) {
+            removePosting(titleTerms, token, doc);
+        }
+        for (String token : tokenize(book.getAuthor())) {
+            removePosting(authorTerms, token, doc);
+        }
+        titleSuggestions.remove(book.getTitle());
+        authorSuggestions.remove(book.getAuthor());
+        if (book.getCategory() != null) {
+            removeFacet(categoryFacets, book.getCategory(), doc);
+        }
+        if (book.getPublicationYear() != null) {
+            removeFacet(yearFacets, book.getPublicationYear(), doc);
+        }
+    }
+
+    private static void removePosting(Map<String, PostingList> terms, String token, int doc) {
+        PostingList postings = terms.get(token);
+        if (postings != null) {
+            postings.remove(doc);
+            if (postings.isEmpty()) {
+                terms.remove(token);
+            }
+        }
+    }
+
+    private static <K> void removeFacet(Map<K, BitSet> facets, K value, int doc) {
+        BitSet facet = facets.get(value);
+        if (facet != null) {
+            facet.clear(doc);
+            if (facet.isEmpty()) {
+                facets.remove(value);
+            }
+        }
+    }
+
+    // Sorted, duplicate-free list of doc numbers backed by a primitive int array
+    static final class PostingList {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+            docs[insertAt] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int position = Arrays.binarySearch(docs, 0, size, doc);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(docs, position + 1, docs, position, size - position - 1);
+            size--;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(docs[i]);
+            }
+        }
+    }
+}
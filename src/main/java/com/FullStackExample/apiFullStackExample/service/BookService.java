@@ -1,162 +1,727 @@
 package com.FullStackExample.apiFullStackExample.service;
 
+import com.FullStackExample.apiFullStackExample.config.CacheConfig;
+import com.FullStackExample.apiFullStackExample.datasource.ReadRouting;
+import com.FullStackExample.apiFullStackExample.dto.BookBatchGetResultDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookBatchResultDTO;
 import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookFacetsDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookPageDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.dto.BookSuggestionDTO;
 import com.FullStackExample.apiFullStackExample.entity.Book;
+import com.FullStackExample.apiFullStackExample.exception.DuplicateBookException;
+import com.FullStackExample.apiFullStackExample.exception.StaleBookVersionException;
+import com.FullStackExample.apiFullStackExample.exception.SuggestionsUnavailableException;
 import com.FullStackExample.apiFullStackExample.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class BookService {
     
+    // Page sizes for keyset pagination
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    
+    // Books returned by one search
+    private static final int DEFAULT_SEARCH_LIMIT = 100;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+    
+    // Facets: years per publication-year bucket and number of authors listed
+    private static final int DEFAULT_YEAR_BUCKET = 10;
+    private static final int MAX_YEAR_BUCKET = 1000;
+    private static final int DEFAULT_FACET_AUTHORS = 20;
+    private static final int MAX_FACET_AUTHORS = 1000;
+    
+    // Autocomplete suggestions returned for one query
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+    private static final int MAX_SUGGEST_LIMIT = 50;
+    
+    // Books per batch request (batch get, update and delete)
+    private static final int MAX_BATCH_SIZE = 1000;
+    
+    // Unique constraint on book (title, author), see V5__book_title_author_unique.sql
+    static final String TITLE_AUTHOR_CONSTRAINT = "uq_book_title_author";
+    
     @Autowired
     private BookRepository bookRepository;
     
+    @Autowired
+    private BookSearchIndex searchIndex;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private BookReadCoalescer readCoalescer;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Write-behind mode (see BookWriteQueue): off by default, every write then commits on its own
+    @Value("${books.write-behind.enabled:false}")
+    private boolean writeBehindEnabled;
+    
+    @Value("${books.write-behind.queue-capacity:10000}")
+    private int writeQueueCapacity;
+    
+    @Value("${books.write-behind.max-group-size:500}")
+    private int maxWriteGroupSize;
+    
+    @Value("${books.write-behind.offer-timeout:1s}")
+    private Duration writeOfferTimeout;
+    
+    @Value("${books.write-behind.shutdown-timeout:30s}")
+    private Duration writeShutdownTimeout;
+    
+    private BookWriteQueue writeQueue;
+    
+    @PostConstruct
+    void startWriteBehind() {
+        if (writeBehindEnabled) {
+            // The writer thread reads on the primary, like the write requests it stands in for
+            writeQueue = new BookWriteQueue(writeQueueCapacity, maxWriteGroupSize, writeOfferTimeout,
+                    group -> ReadRouting.onPrimary(() -> commitGroup(group)), meterRegistry);
+            writeQueue.start();
+        }
+    }
+    
+    // Commit the queued writes before the database goes away
+    @PreDestroy
+    void stopWriteBehind() throws InterruptedException {
+        if (writeQueue != null) {
+            writeQueue.stop(writeShutdownTimeout);
+        }
+    }
+    
+    // Catalog-wide change counter: changes whenever a committed write touches the book table.
+    // A single-row lookup, so clients polling the lists can be answered without running the list query
+    public long getCatalogVersion() {
+        return bookRepository.findCatalogVersion();
+    }
+    
     // Get all books
+    @Transactional(readOnly = true)
     public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findAllBooks();
+    }
+    
+    // Get a page of books after the given cursor (keyset pagination on id)
+    @Transactional(readOnly = true)
+    public BookPageDTO getBooksPage(String cursor, Integer limit) {
+        long afterId = decodeCursor(cursor);
+        int pageSize = resolvePageSize(limit);
+        
+        // Fetch one extra row to know whether another page follows
+        List<BookDTO> books = bookRepository.findPageAfterId(afterId, Limit.of(pageSize + 1));
+        
+        boolean hasNext = books.size() > pageSize;
+        if (hasNext) {
+            books = books.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? encodeCursor(books.get(books.size() - 1).getId()) : null;
+        return new BookPageDTO(books, nextCursor, hasNext);
+    }
+    
+    // Stream all books in id order, one row at a time, without materializing the table.
+    // Rows are projected into DTOs, so the persistence context stays empty and memory stays flat
+    @Transactional(readOnly = true)
+    public void streamAllBooks(Consumer<BookDTO> consumer) {
+        try (Stream<BookDTO> books = bookRepository.streamAllOrderById()) {
+            books.forEach(consumer);
+        }
     }
     
-    // Get book by ID
+    // Get book by ID (missing ids are cached too, until a book with that id is created).
+    // Cached reads and index searches are not transactional, so a hit never takes a pooled connection.
+    // Concurrent misses for the same id share one query. Misses read the primary: what they cache is served
+    // to every client for the whole TTL, and a lagging replica could put back a book that was just deleted.
+    // A miss that returns after a write or delete of the book does not replace it (see BookByIdCache)
+    @Cacheable(cacheNames = CacheConfig.BOOK_BY_ID, key = "#id")
     public Optional<BookDTO> getBookById(Long id) {
-        return bookRepository.findById(id)
-                .map(this::convertToDTO);
+        return ReadRouting.readOnPrimary(() -> coalesce("by-id", id, () -> bookRepository.findBookById(id)));
     }
     
-    // Create new book
+    // Create new book (a single INSERT; the unique title+author constraint rejects duplicates).
+    // In write-behind mode the INSERT is queued and committed with other writes; this still returns after the commit
+    @CachePut(cacheNames = CacheConfig.BOOK_BY_ID, key = "#result.id")
     public BookDTO createBook(BookDTO bookDTO) {
-        // Validate book with same title and author doesn't already exist
-        if (bookRepository.existsByTitleAndAuthor(bookDTO.getTitle(), bookDTO.getAuthor())) {
-            throw new RuntimeException("A book with the same title and author already exists");
+        if (writeQueue != null) {
+            return writeQueue.submit(BookWrite.create(bookDTO)).await();
+        }
+        Book savedBook;
+        try {
+            savedBook = bookRepository.save(convertToEntity(bookDTO));
+        } catch (DataIntegrityViolationException e) {
+            throw translateConflict(e);
+        }
+        BookDTO created = convertToDTO(savedBook);
+        afterCreate(created);
+        return created;
+    }
+    
+    // Update book (a single UPDATE; no row updated means the book does not exist or, when an
+    // expected version is given, that it was changed since that version)
+    @CachePut(cacheNames = CacheConfig.BOOK_BY_ID, key = "#id")
+    public BookDTO updateBook(Long id, BookDTO bookDTO, Long expectedVersion) {
+        if (writeQueue != null) {
+            return writeQueue.submit(BookWrite.update(id, bookDTO, expectedVersion)).await();
+        }
+        List<Object[]> previousValues;
+        try {
+            previousValues = updateRow(id, bookDTO, expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            throw translateConflict(e);
+        }
+        if (previousValues.isEmpty()) {
+            throw missingBook(id, expectedVersion);
         }
         
-        Book book = convertToEntity(bookDTO);
-        Book savedBook = bookRepository.save(book);
-        return convertToDTO(savedBook);
-    }
-    
-    // Update book
-    public BookDTO updateBook(Long id, BookDTO bookDTO) {
-        return bookRepository.findById(id)
-                .map(book -> {
-                    // Check if title and author have changed and if another book exists with those details
-                    if (!book.getTitle().equals(bookDTO.getTitle()) || 
-                        !book.getAuthor().equals(bookDTO.getAuthor())) {
-                        
-                        if (bookRepository.existsByTitleAndAuthor(bookDTO.getTitle(), bookDTO.getAuthor())) {
-                            throw new RuntimeException("A book with the same title and author already exists");
-                        }
-                    }
-                    
-                    // Update book properties
-                    book.setTitle(bookDTO.getTitle());
-                    book.setAuthor(bookDTO.getAuthor());
-                    book.setPublicationYear(bookDTO.getPublicationYear());
-                    book.setCategory(bookDTO.getCategory());
-                    
-                    Book updatedBook = bookRepository.save(book);
-                    return convertToDTO(updatedBook);
-                })
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
-    }
-    
-    // Delete book
+        BookDTO updated = updatedBook(id, bookDTO, previousValues.get(0));
+        afterUpdate(previousValues.get(0), updated);
+        return updated;
+    }
+    
+    // Delete book (a single DELETE; no row deleted means the book does not exist)
+    @CacheEvict(cacheNames = CacheConfig.BOOK_BY_ID, key = "#id")
     public void deleteBook(Long id) {
-        if (!bookRepository.existsById(id)) {
+        if (writeQueue != null) {
+            writeQueue.submit(BookWrite.delete(id)).await();
+            return;
+        }
+        if (bookRepository.deleteBookById(id) == 0) {
             throw new RuntimeException("Book not found with id: " + id);
         }
-        bookRepository.deleteById(id);
+        afterDelete(id);
+    }
+    
+    // Look up many books with one query: the books found, in the order of the requested ids, and the missing ids
+    @Transactional(readOnly = true)
+    public BookBatchGetResultDTO getBooksByIds(List<Long> ids) {
+        Set<Long> requested = batchIds(ids);
+        Map<Long, BookDTO> found = new HashMap<>();
+        for (BookDTO book : bookRepository.findBooksByIds(requested)) {
+            found.put(book.getId(), book);
+        }
+        
+        List<BookDTO> books = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            BookDTO book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BookBatchGetResultDTO(books, missingIds);
+    }
+    
+    // Update many books in one transaction and one UPDATE statement. A book's version, when given, is the
+    // version its update is based on. Missing and stale books fail on their own; a title and author used by
+    // another book rolls the whole batch back (DuplicateBookException).
+    // Batches are committed directly, also in write-behind mode: a batch is already a group commit
+    public BookBatchResultDTO updateBooks(List<BookDTO> books) {
+        if (books == null || books.isEmpty() || books.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " books are required");
+        }
+        int size = books.size();
+        Long[] ids = new Long[size];
+        String[] titles = new String[size];
+        String[] authors = new String[size];
+        Integer[] publicationYears = new Integer[size];
+        String[] categories = new String[size];
+        Long[] expectedVersions = new Long[size];
+        Set<Long> distinctIds = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            BookDTO book = books.get(i);
+            if (book.getId() == null || !distinctIds.add(book.getId())) {
+                throw new IllegalArgumentException("Every book needs an id, at most once per batch");
+            }
+            ids[i] = book.getId();
+            titles[i] = book.getTitle();
+            authors[i] = book.getAuthor();
+            publicationYears[i] = book.getPublicationYear();
+            categories[i] = book.getCategory();
+            expectedVersions[i] = book.getVersion() == null ? BookRepository.ANY_VERSION : book.getVersion();
+        }
+        
+        Map<Long, Object[]> previousRows = new HashMap<>();
+        try {
+            for (Object[] row : bookRepository.updateAllReturningPrevious(ids, titles, authors, publicationYears,
+                    categories, expectedVersions)) {
+                previousRows.put(((Number) row[0]).longValue(), Arrays.copyOfRange(row, 1, row.length));
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw translateConflict(e);
+        }
+        
+        // Only failed conditional updates need a second query to tell missing books from stale versions
+        List<Long> staleCandidates = books.stream()
+                .filter(book -> book.getVersion() != null && !previousRows.containsKey(book.getId()))
+                .map(BookDTO::getId)
+                .toList();
+        Set<Long> existing = staleCandidates.isEmpty() ? Set.of()
+                : new HashSet<>(bookRepository.findExistingIds(staleCandidates));
+        
+        Cache bookById = cacheManager.getCache(CacheConfig.BOOK_BY_ID);
+        BookBatchResultDTO result = new BookBatchResultDTO();
+        for (BookDTO book : books) {
+            Long id = book.getId();
+            Object[] previousRow = previousRows.get(id);
+            if (previousRow == null) {
+                if (existing.contains(id)) {
+                    result.addFailure(id, BookBatchResultDTO.STALE_VERSION, new StaleBookVersionException(id).getMessage());
+                } else {
+                    result.addFailure(id, BookBatchResultDTO.NOT_FOUND, "Book not found with id: " + id);
+                }
+                continue;
+            }
+            BookDTO updated = updatedBook(id, book, previousRow);
+            afterUpdate(previousRow, updated);
+            if (bookById != null) {
+                bookById.put(id, updated);
+            }
+            result.addSuccess(id, BookBatchResultDTO.UPDATED, updated);
+        }
+        return result;
+    }
+    
+    // Delete many books in one DELETE statement; ids with no book are reported as NOT_FOUND
+    public BookBatchResultDTO deleteBooks(List<Long> ids) {
+        Set<Long> requested = batchIds(ids);
+        Set<Long> deleted = new HashSet<>(bookRepository.deleteAllReturningIds(requested.toArray(new Long[0])));
+        
+        Cache bookById = cacheManager.getCache(CacheConfig.BOOK_BY_ID);
+        BookBatchResultDTO result = new BookBatchResultDTO();
+        for (Long id : requested) {
+            if (!deleted.contains(id)) {
+                result.addFailure(id, BookBatchResultDTO.NOT_FOUND, "Book not found with id: " + id);
+                continue;
+            }
+            afterDelete(id);
+            if (bookById != null) {
+                bookById.evict(id);
+            }
+            result.addSuccess(id, BookBatchResultDTO.DELETED, null);
+        }
+        return result;
+    }
+    
+    // Whether writes go through the write-behind queue
+    public boolean isWriteBehindEnabled() {
+        return writeQueue != null;
+    }
+    
+    // Queue a write without waiting for its commit (write-behind mode only); its outcome is looked up with findWrite
+    public BookWrite submitCreate(BookDTO bookDTO) {
+        return requireWriteQueue().submit(BookWrite.create(bookDTO));
+    }
+    
+    public BookWrite submitUpdate(Long id, BookDTO bookDTO, Long expectedVersion) {
+        return requireWriteQueue().submit(BookWrite.update(id, bookDTO, expectedVersion));
+    }
+    
+    public BookWrite submitDelete(Long id) {
+        return requireWriteQueue().submit(BookWrite.delete(id));
+    }
+    
+    // A write submitted in the last few minutes
+    public Optional<BookWrite> findWrite(String writeId) {
+        return writeQueue == null ? Optional.empty() : writeQueue.find(writeId);
     }
     
     // Search books by title
+    @Transactional(readOnly = true)
     public List<BookDTO> findByTitle(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findByTitleContainingIgnoreCase(title);
     }
     
     // Search books by author
+    @Transactional(readOnly = true)
     public List<BookDTO> findByAuthor(String author) {
-        return bookRepository.findByAuthorContainingIgnoreCase(author)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findByAuthorContainingIgnoreCase(author);
     }
     
     // Search books by category
+    @Transactional(readOnly = true)
     public List<BookDTO> findByCategory(String category) {
-        return bookRepository.findByCategory(category)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findByCategory(category);
     }
     
     // Search books by publication year
+    @Transactional(readOnly = true)
     public List<BookDTO> findByPublicationYear(Integer year) {
-        return bookRepository.findByPublicationYear(year)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findByPublicationYear(year);
     }
     
     // Search books by year range
+    @Transactional(readOnly = true)
     public List<BookDTO> findByYearRange(Integer startYear, Integer endYear) {
-        return bookRepository.findByPublicationYearBetween(startYear, endYear)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return bookRepository.findByPublicationYearBetween(startYear, endYear);
+    }
+    
+    // Search books, from the in-memory index when it is loaded, otherwise from the database.
+    // Every given filter applies, the year range included; at most limit books (default 100).
+    // Identical searches running at the same time share one database query
+    public List<BookDTO> searchBooks(BookSearchCriteria criteria, Integer limit) {
+        int maxResults = resolveSearchLimit(limit);
+        if (searchIndex.isReady()) {
+            return searchIndex.search(criteria, maxResults);
+        }
+        return coalesce("search", List.of(SearchKey.of(criteria), maxResults),
+                () -> bookRepository.search(criteria, Limit.of(maxResults)));
     }
     
-    // Search books by multiple criteria
-    public List<BookDTO> findByMultipleCriteria(String title, String author, 
-                                              String category, Integer publicationYear) {
-        return bookRepository.findByMultipleCriteria(title, author, category, publicationYear)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    // Titles and authors for what the user has typed so far, only from the in-memory index: words starting
+    // with the query first, then those within one typo, each by number of books. field is title, author or null for both
+    public List<BookSuggestionDTO> suggest(String query, String field, Integer limit) {
+        int maxSuggestions = resolveLimit(limit, DEFAULT_SUGGEST_LIMIT, MAX_SUGGEST_LIMIT, "Limit");
+        if (field != null && !field.equals(BookSearchIndex.TITLE) && !field.equals(BookSearchIndex.AUTHOR)) {
+            throw new IllegalArgumentException("Field must be " + BookSearchIndex.TITLE + " or " + BookSearchIndex.AUTHOR);
+        }
+        if (!searchIndex.isReady()) {
+            throw new SuggestionsUnavailableException();
+        }
+        return searchIndex.suggest(query, field, maxSuggestions);
     }
     
-    // Get all categories
+    // Book counts per category, author and year bucket. Without filters they come from the facet summary
+    // table, which triggers keep up to date; with filters, from the in-memory index when it is loaded,
+    // otherwise from GROUP BY queries over the matching books (never the books themselves).
+    // Identical requests answered from the database at the same time share one query
+    public BookFacetsDTO getFacets(BookSearchCriteria criteria, Integer yearBucket, Integer authorLimit) {
+        int yearBucketSize = resolveLimit(yearBucket, DEFAULT_YEAR_BUCKET, MAX_YEAR_BUCKET, "Year bucket");
+        int authors = resolveLimit(authorLimit, DEFAULT_FACET_AUTHORS, MAX_FACET_AUTHORS, "Author limit");
+        
+        if (!criteria.isEmpty() && searchIndex.isReady()) {
+            BookFacetCounts counts = new BookFacetCounts();
+            searchIndex.countFacets(criteria, counts);
+            return counts.toDTO(yearBucketSize, authors);
+        }
+        return coalesce("facets", List.of(SearchKey.of(criteria), yearBucketSize, authors), () -> {
+            List<Object[]> rows = criteria.isEmpty()
+                    ? bookRepository.findFacetCounts(authors)
+                    : bookRepository.countFacets(criteria, authors);
+            BookFacetCounts counts = new BookFacetCounts();
+            for (Object[] row : rows) {
+                counts.addSummary((String) row[0], (String) row[1], ((Number) row[2]).longValue());
+            }
+            return counts.toDTO(yearBucketSize, authors);
+        });
+    }
+    
+    // Get all categories (cached from the primary, like getBookById)
+    @Cacheable(CacheConfig.BOOK_CATEGORIES)
     public List<String> getAllCategories() {
-        return bookRepository.findAllCategories();
+        return ReadRouting.readOnPrimary(bookRepository::findAllCategories);
     }
     
-    // Get all authors
+    // Get all authors (cached from the primary, like getBookById)
+    @Cacheable(CacheConfig.BOOK_AUTHORS)
     public List<String> getAllAuthors() {
-        return bookRepository.findAllAuthors();
+        return ReadRouting.readOnPrimary(bookRepository::findAllAuthors);
+    }
+    
+    // Whether a failed write was rejected by the unique title+author constraint
+    static boolean isTitleAuthorConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(TITLE_AUTHOR_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static RuntimeException translateConflict(DataIntegrityViolationException e) {
+        return isTitleAuthorConflict(e) ? new DuplicateBookException(e) : e;
+    }
+    
+    // Helper methods for writes
+    private List<Object[]> updateRow(Long id, BookDTO bookDTO, Long expectedVersion) {
+        return bookRepository.updateReturningPrevious(id, bookDTO.getTitle(), bookDTO.getAuthor(),
+                bookDTO.getPublicationYear(), bookDTO.getCategory(),
+                expectedVersion == null ? BookRepository.ANY_VERSION : expectedVersion);
+    }
+    
+    // Only a failed conditional update needs a second query to tell a missing book from a stale version
+    private RuntimeException missingBook(Long id, Long expectedVersion) {
+        if (expectedVersion != null && bookRepository.existsById(id)) {
+            return new StaleBookVersionException(id);
+        }
+        return new RuntimeException("Book not found with id: " + id);
+    }
+    
+    // The updated book, with the new version returned by the UPDATE
+    private static BookDTO updatedBook(Long id, BookDTO bookDTO, Object[] previousRow) {
+        return new BookDTO(id, bookDTO.getTitle(), bookDTO.getAuthor(),
+                bookDTO.getPublicationYear(), bookDTO.getCategory(), ((Number) previousRow[2]).longValue());
+    }
+    
+    // Keep the search index, list caches and coalesced reads in line with committed writes
+    private void afterCreate(BookDTO created) {
+        readCoalescer.invalidate();
+        searchIndex.index(created);
+        evictListCaches(null, created);
+    }
+    
+    private void afterUpdate(Object[] previousRow, BookDTO updated) {
+        BookDTO previous = new BookDTO(updated.getId(), null, (String) previousRow[0], null, (String) previousRow[1]);
+        readCoalescer.invalidate();
+        searchIndex.index(updated);
+        evictListCaches(previous, updated);
+    }
+    
+    private void afterDelete(Long id) {
+        readCoalescer.invalidate();
+        searchIndex.remove(id);
+        // The deleted book may have been the last one with its category or author
+        clearCache(CacheConfig.BOOK_CATEGORIES);
+        clearCache(CacheConfig.BOOK_AUTHORS);
+    }
+    
+    private BookWriteQueue requireWriteQueue() {
+        if (writeQueue == null) {
+            throw new IllegalStateException("Write-behind is not enabled");
+        }
+        return writeQueue;
+    }
+    
+    // Group commit: apply the writes drained by the writer in one transaction, then settle each write.
+    // A book that is missing or stale fails only its own write. An error that aborts the transaction
+    // (such as a duplicate title and author) rolls the whole group back, so it is retried one write per transaction
+    private void commitGroup(List<BookWrite> group) {
+        List<Runnable> afterCommit;
+        try {
+            afterCommit = transactionTemplate.execute(status -> {
+                List<Runnable> settlements = new ArrayList<>(group.size());
+                for (BookWrite write : group) {
+                    settlements.add(apply(write));
+                }
+                return settlements;
+            });
+        } catch (RuntimeException e) {
+            if (group.size() > 1) {
+                group.forEach(write -> commitGroup(List.of(write)));
+            } else {
+                group.get(0).fail(e instanceof DataIntegrityViolationException violation ? translateConflict(violation) : e);
+            }
+            return;
+        }
+        afterCommit.forEach(Runnable::run);
+    }
+    
+    // Run one queued write inside the group transaction, returning what to do once the group has committed.
+    // The book-by-id cache is kept up to date here too, for writes whose caller does not wait
+    private Runnable apply(BookWrite write) {
+        Cache bookById = cacheManager.getCache(CacheConfig.BOOK_BY_ID);
+        Long id = write.getBookId();
+        switch (write.getType()) {
+            case CREATE -> {
+                BookDTO created = convertToDTO(bookRepository.save(convertToEntity(write.getPayload())));
+                return () -> {
+                    afterCreate(created);
+                    if (bookById != null) {
+                        bookById.put(created.getId(), created);
+                    }
+                    write.complete(created);
+                };
+            }
+            case UPDATE -> {
+                List<Object[]> previousValues = updateRow(id, write.getPayload(), write.getExpectedVersion());
+                if (previousValues.isEmpty()) {
+                    RuntimeException failure = missingBook(id, write.getExpectedVersion());
+                    return () -> write.fail(failure);
+                }
+                BookDTO updated = updatedBook(id, write.getPayload(), previousValues.get(0));
+                return () -> {
+                    afterUpdate(previousValues.get(0), updated);
+                    if (bookById != null) {
+                        bookById.put(id, updated);
+                    }
+                    write.complete(updated);
+                };
+            }
+            default -> {
+                if (bookRepository.deleteBookById(id) == 0) {
+                    return () -> write.fail(new RuntimeException("Book not found with id: " + id));
+                }
+                return () -> {
+                    afterDelete(id);
+                    if (bookById != null) {
+                        bookById.evict(id);
+                    }
+                    write.complete(null);
+                };
+            }
+        }
+    }
+    
+    // Helper methods for cache invalidation
+    // The cached category/author lists only change when a value is added or may have disappeared
+    private void evictListCaches(BookDTO before, BookDTO after) {
+        evictListIfChanged(CacheConfig.BOOK_CATEGORIES,
+                before == null ? null : before.getCategory(), after.getCategory());
+        evictListIfChanged(CacheConfig.BOOK_AUTHORS,
+                before == null ? null : before.getAuthor(), after.getAuthor());
+    }
+    
+    private void evictListIfChanged(String cacheName, String oldValue, String newValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (oldValue == null) {
+            // Nothing can disappear: only evict if the new value is not listed yet
+            List<?> cached = cache.get(SimpleKey.EMPTY, List.class);
+            if (cached == null || newValue == null || cached.contains(newValue)) {
+                return;
+            }
+        }
+        cache.clear();
+    }
+    
+    // Run a database read through the coalescer. Reads routed to different databases (see ReadRouting) may
+    // see different data, so they only share a query with reads on the same route
+    private <T> T coalesce(String operation, Object parameters, Supplier<T> query) {
+        return readCoalescer.execute(operation, Arrays.asList(parameters, ReadRouting.currentRoute()), query);
+    }
+    
+    private void clearCache(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+    
+    // Requested ids in request order, without repeats
+    private static Set<Long> batchIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " ids are required");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids.size());
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("Ids must not be null");
+            }
+            requested.add(id);
+        }
+        return requested;
+    }
+    
+    // Helper methods for keyset pagination and limits, shared with ReactiveBookService
+    static int resolvePageSize(Integer limit) {
+        return resolveLimit(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE, "Limit");
+    }
+    
+    static int resolveSearchLimit(Integer limit) {
+        return resolveLimit(limit, DEFAULT_SEARCH_LIMIT, MAX_SEARCH_LIMIT, "Limit");
+    }
+    
+    private static int resolveLimit(Integer value, int defaultValue, int maxValue, String name) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be greater than 0");
+        }
+        return Math.min(value, maxValue);
+    }
+    
+    static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
     }
     
     // Helper methods for DTO conversion
-    private BookDTO convertToDTO(Book book) {
+    static BookDTO convertToDTO(Book book) {
         return new BookDTO(
                 book.getId(),
                 book.getTitle(),
                 book.getAuthor(),
                 book.getPublicationYear(),
-                book.getCategory()
+                book.getCategory(),
+                book.getVersion()
         );
     }
     
-    private Book convertToEntity(BookDTO bookDTO) {
-        Book book = new Book(
+    // Only used for new books: a client-supplied id is ignored, the id always comes from the sequence
+    static Book convertToEntity(BookDTO bookDTO) {
+        return new Book(
                 bookDTO.getTitle(),
                 bookDTO.getAuthor(),
                 bookDTO.getPublicationYear(),
                 bookDTO.getCategory()
         );
+    }
+    
+    // Search filters compared by value, for coalescing. Title and author are matched case-insensitively,
+    // so searches differing only in their case are the same query
+    private record SearchKey(String title, String author, String category, Integer publicationYear,
+                             Integer startYear, Integer endYear) {
         
-        if (bookDTO.getId() != null) {
-            book.setId(bookDTO.getId());
+        static SearchKey of(BookSearchCriteria criteria) {
+            return new SearchKey(lowerCase(criteria.getTitle()), lowerCase(criteria.getAuthor()), criteria.getCategory(),
+                    criteria.getPublicationYear(), criteria.getStartYear(), criteria.getEndYear());
         }
         
-        return book;
+        private static String lowerCase(String value) {
+            return value == null ? null : value.toLowerCase(Locale.ROOT);
+        }
     }
 }
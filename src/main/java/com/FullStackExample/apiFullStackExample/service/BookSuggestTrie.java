@@ -0,0 +1,368 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Autocomplete over the distinct values of one field (titles or authors). Values are kept lower-case and
+// accent-free in a radix trie, whose edges hold runs of characters rather than one node per character, and
+// each value is reachable from every one of its words, so "quix" finds "Don Quixote". Every node knows the
+// largest book count below it: the most common values under a prefix are found best first, without walking
+// the rest of the subtree. Not thread safe, BookSearchIndex calls it under its lock
+final class BookSuggestTrie {
+
+    // One typo is only allowed from this many characters on: shorter queries would match almost anything
+    static final int FUZZY_MIN_LENGTH = 3;
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Value[] NO_VALUES = new Value[0];
+
+    // Most books first; on a tie, the trie key, which is also a lower bound of every key below a node
+    private static final Comparator<Candidate> BEST_FIRST =
+            Comparator.comparingInt(Candidate::weight).reversed().thenComparing(Candidate::key);
+
+    private final String field;
+    private final Node root = new Node("");
+    private final Map<String, Value> values = new HashMap<>();
+
+    BookSuggestTrie(String field) {
+        this.field = field;
+    }
+
+    // Number of distinct values
+    int size() {
+        return values.size();
+    }
+
+    // A book with this value has been added
+    void add(String text) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        Value value = values.get(key);
+        if (value == null) {
+            value = new Value(text);
+            values.put(key, value);
+            for (String wordKey : wordKeys(key)) {
+                insert(root, wordKey, 0, value);
+            }
+        } else {
+            value.count++;
+            for (String wordKey : wordKeys(key)) {
+                refresh(root, wordKey, 0);
+            }
+        }
+    }
+
+    // A book with this value has been removed
+    void remove(String text) {
+        String key = normalize(text);
+        Value value = values.get(key);
+        if (value == null) {
+            return;
+        }
+        value.count--;
+        if (value.count == 0) {
+            values.remove(key);
+            for (String wordKey : wordKeys(key)) {
+                delete(root, wordKey, 0, value);
+            }
+        } else {
+            for (String wordKey : wordKeys(key)) {
+                refresh(root, wordKey, 0);
+            }
+        }
+    }
+
+    // Values with a word starting with the query, most books first, then values within one typo of it
+    List<BookSuggestionDTO> suggest(String query, int limit) {
+        List<BookSuggestionDTO> suggestions = new ArrayList<>();
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return suggestions;
+        }
+        Set<Value> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Match exact = exactMatch(prefix);
+        if (exact != null) {
+            collectBest(List.of(exact), limit, false, seen, suggestions);
+        }
+        // The exact matches are all in seen when there are fewer than limit, so they are not repeated as typos
+        if (suggestions.size() < limit && prefix.length() >= FUZZY_MIN_LENGTH) {
+            List<Match> fuzzy = new ArrayList<>();
+            int[] firstRow = new int[prefix.length() + 1];
+            Arrays.setAll(firstRow, i -> i);
+            fuzzyMatches(root, "", prefix, firstRow, null, '\0', fuzzy);
+            collectBest(fuzzy, limit, true, seen, suggestions);
+        }
+        return suggestions;
+    }
+
+    // The lower-case, accent-free words of a value, separated by single spaces
+    static String normalize(String text) {
+        return String.join(" ", BookSearchIndex.tokenize(text));
+    }
+
+    // The key itself and the rest of it from each of its other words
+    private static List<String> wordKeys(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+
+    private static void insert(Node node, String key, int position, Value value) {
+        if (position == key.length()) {
+            node.values = Arrays.copyOf(node.values, node.values.length + 1);
+            node.values[node.values.length - 1] = value;
+        } else {
+            int index = childIndex(node, key.charAt(position));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(position));
+                leaf.values = new Value[] {value};
+                leaf.refreshWeight();
+                node.addChild(-index - 1, leaf);
+            } else {
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, key, position);
+                if (common < child.label.length()) {
+                    // The key leaves this edge part way: split it at that point
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children = new Node[] {child};
+                    node.children[index] = split;
+                    child = split;
+                }
+                insert(child, key, position + common, value);
+            }
+        }
+        node.refreshWeight();
+    }
+
+    private static void delete(Node node, String key, int position, Value value) {
+        if (position == key.length()) {
+            node.values = Arrays.stream(node.values).filter(v -> v != value).toArray(Value[]::new);
+        } else {
+            int index = childIndex(node, key.charAt(position));
+            if (index < 0 || !key.startsWith(node.children[index].label, position)) {
+                return;
+            }
+            Node child = node.children[index];
+            delete(child, key, position + child.label.length(), value);
+            // Keep the trie compact: drop empty nodes and merge a node that only leads to one other
+            if (child.values.length == 0 && child.children.length == 0) {
+                node.removeChild(index);
+            } else if (child.values.length == 0 && child.children.length == 1) {
+                Node only = child.children[0];
+                only.label = child.label + only.label;
+                node.children[index] = only;
+            }
+        }
+        node.refreshWeight();
+    }
+
+    // Recompute the weights along the path of a key whose count has changed
+    private static void refresh(Node node, String key, int position) {
+        if (position < key.length()) {
+            int index = childIndex(node, key.charAt(position));
+            if (index >= 0 && key.startsWith(node.children[index].label, position)) {
+                refresh(node.children[index], key, position + node.children[index].label.length());
+            }
+        }
+        node.refreshWeight();
+    }
+
+    // The node holding every key that starts with the prefix, with its path, or null when there is none
+    private Match exactMatch(String prefix) {
+        Node node = root;
+        int position = 0;
+        while (true) {
+            int index = childIndex(node, prefix.charAt(position));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, prefix, position);
+            if (position + common == prefix.length()) {
+                return new Match(child, prefix.substring(0, position) + child.label);
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            position += common;
+            node = child;
+        }
+    }
+
+    // Nodes whose keys start within one edit of the query (Damerau-Levenshtein, adjacent swaps included),
+    // found by extending the edit-distance row one character of the path at a time. A branch stops at its
+    // first match, since every key below shares that prefix, or when no column is within one edit any more
+    private static void fuzzyMatches(Node node, String path, String query, int[] row, int[] previousRow,
+                                     char lastChar, List<Match> matches) {
+        for (Node child : node.children) {
+            int[] current = row;
+            int[] before = previousRow;
+            char last = lastChar;
+            boolean descend = true;
+            for (int i = 0; i < child.label.length() && descend; i++) {
+                char c = child.label.charAt(i);
+                int[] next = nextRow(query, current, before, c, last);
+                before = current;
+                current = next;
+                last = c;
+                if (current[query.length()] <= 1) {
+                    matches.add(new Match(child, path + child.label));
+                    descend = false;
+                } else if (minimum(current) > 1) {
+                    descend = false;
+                }
+            }
+            if (descend) {
+                fuzzyMatches(child, path + child.label, query, current, before, last, matches);
+            }
+        }
+    }
+
+    // Distances from the path extended with c to every prefix of the query
+    private static int[] nextRow(String query, int[] row, int[] previousRow, char c, char lastChar) {
+        int[] next = new int[row.length];
+        next[0] = row[0] + 1;
+        for (int j = 1; j < row.length; j++) {
+            int substitution = row[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+            next[j] = Math.min(substitution, Math.min(row[j] + 1, next[j - 1] + 1));
+            if (previousRow != null && j > 1 && query.charAt(j - 1) == lastChar && query.charAt(j - 2) == c) {
+                next[j] = Math.min(next[j], previousRow[j - 2] + 1);
+            }
+        }
+        return next;
+    }
+
+    private static int minimum(int[] row) {
+        int minimum = row[0];
+        for (int distance : row) {
+            minimum = Math.min(minimum, distance);
+        }
+        return minimum;
+    }
+
+    // Best-first walk from the given nodes: a node is only opened while it may still hold one of the best values
+    private void collectBest(List<Match> starts, int limit, boolean fuzzy, Set<Value> seen,
+                             List<BookSuggestionDTO> suggestions) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(BEST_FIRST);
+        for (Match start : starts) {
+            queue.add(new Candidate(start.node().weight, start.path(), start.node(), null));
+        }
+        while (suggestions.size() < limit && !queue.isEmpty()) {
+            Candidate candidate = queue.poll();
+            if (candidate.value() != null) {
+                if (seen.add(candidate.value())) {
+                    Value value = candidate.value();
+                    suggestions.add(new BookSuggestionDTO(value.text, field, value.count, fuzzy));
+                }
+                continue;
+            }
+            Node node = candidate.node();
+            for (Value value : node.values) {
+                queue.add(new Candidate(value.count, candidate.key(), null, value));
+            }
+            for (Node child : node.children) {
+                queue.add(new Candidate(child.weight, candidate.key() + child.label, child, null));
+            }
+        }
+    }
+
+    // Children are sorted by the first character of their label, which differs between siblings
+    private static int childIndex(Node node, char c) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = node.children[middle].label.charAt(0);
+            if (first < c) {
+                low = middle + 1;
+            } else if (first > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefixLength(String label, String key, int position) {
+        int length = 0;
+        while (length < label.length() && position + length < key.length()
+                && label.charAt(length) == key.charAt(position + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static final class Node {
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private Value[] values = NO_VALUES;
+        // Largest count of a value in this subtree
+        private int weight;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        void addChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, shrunk.length - index);
+            children = shrunk;
+        }
+
+        void refreshWeight() {
+            int largest = 0;
+            for (Value value : values) {
+                largest = Math.max(largest, value.count);
+            }
+            for (Node child : children) {
+                largest = Math.max(largest, child.weight);
+            }
+            weight = largest;
+        }
+    }
+
+    // A distinct value, shown as first written, and the number of books that have it
+    private static final class Value {
+
+        private final String text;
+        private int count = 1;
+
+        Value(String text) {
+            this.text = text;
+        }
+    }
+
+    private record Match(Node node, String path) {
+    }
+
+    // A node to open or a value to return, ranked by weight
+    private record Candidate(int weight, String key, Node node, Value value) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// A create, update or delete waiting in the write-behind queue, and its outcome once its group commits
+public final class BookWrite {
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    public enum Status { PENDING, COMMITTED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Type type;
+    private final Long bookId;
+    private final BookDTO book;
+    private final Long expectedVersion;
+    private final CompletableFuture<BookDTO> result = new CompletableFuture<>();
+
+    private BookWrite(Type type, Long bookId, BookDTO book, Long expectedVersion) {
+        this.type = type;
+        this.bookId = bookId;
+        this.book = book;
+        this.expectedVersion = expectedVersion;
+    }
+
+    // A new book gets its id from the sequence, a client-supplied one is dropped
+    static BookWrite create(BookDTO book) {
+        BookDTO newBook = new BookDTO(null, book.getTitle(), book.getAuthor(), book.getPublicationYear(), book.getCategory());
+        return new BookWrite(Type.CREATE, null, newBook, null);
+    }
+
+    static BookWrite update(Long bookId, BookDTO book, Long expectedVersion) {
+        return new BookWrite(Type.UPDATE, bookId, book, expectedVersion);
+    }
+
+    static BookWrite delete(Long bookId) {
+        return new BookWrite(Type.DELETE, bookId, null, null);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Status getStatus() {
+        if (!result.isDone()) {
+            return Status.PENDING;
+        }
+        return result.isCompletedExceptionally() ? Status.FAILED : Status.COMMITTED;
+    }
+
+    // The written book once committed (null for deletes)
+    public BookDTO getBook() {
+        return result.isDone() && !result.isCompletedExceptionally() ? result.join() : null;
+    }
+
+    // Why the write failed, once it has
+    public String getError() {
+        if (!result.isCompletedExceptionally()) {
+            return null;
+        }
+        return result.handle((book, e) -> e.getMessage()).join();
+    }
+
+    Long getBookId() {
+        return bookId;
+    }
+
+    BookDTO getPayload() {
+        return book;
+    }
+
+    Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    void complete(BookDTO written) {
+        result.complete(written);
+    }
+
+    void fail(RuntimeException e) {
+        result.completeExceptionally(e);
+    }
+
+    // Wait until the write's group has committed, rethrowing the failure of this write
+    BookDTO await() {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.exception.WriteQueueFullException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Bounded queue of book writes drained by a single writer thread. Each time the writer wakes up it takes
+// everything that queued while the previous group was committing (up to the maximum group size) and
+// hands it to the group committer, which applies it in one transaction: under load, many writes share
+// one commit. Submitting blocks for at most the offer timeout when the queue is full, then fails.
+// Writes are only in memory until their group commits: see books.write-behind.* in application.properties
+final class BookWriteQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(BookWriteQueue.class);
+
+    private final BlockingQueue<BookWrite> queue;
+    private final int maxGroupSize;
+    private final Duration offerTimeout;
+    private final Consumer<List<BookWrite>> groupCommitter;
+    private final DistributionSummary groupSizes;
+    private final Thread writer;
+
+    // Recent writes by id, for status lookups of writes submitted without waiting
+    private final Cache<String, BookWrite> recentWrites = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    private volatile boolean running = true;
+
+    BookWriteQueue(int capacity, int maxGroupSize, Duration offerTimeout,
+                   Consumer<List<BookWrite>> groupCommitter, MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxGroupSize = maxGroupSize;
+        this.offerTimeout = offerTimeout;
+        this.groupCommitter = groupCommitter;
+        Gauge.builder("books.write-behind.queue", queue, Collection::size)
+             .description("Book writes waiting for the writer")
+             .register(meterRegistry);
+        this.groupSizes = DistributionSummary.builder("books.write-behind.group.size")
+                .description("Book writes committed per transaction")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("book-writer").daemon().unstarted(this::drain);
+    }
+
+    void start() {
+        writer.start();
+    }
+
+    BookWrite submit(BookWrite write) {
+        if (!running) {
+            throw new IllegalStateException("The write queue is shutting down");
+        }
+        recentWrites.put(write.getId(), write);
+        try {
+            if (!queue.offer(write, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                recentWrites.invalidate(write.getId());
+                throw new WriteQueueFullException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recentWrites.invalidate(write.getId());
+            throw new WriteQueueFullException();
+        }
+        return write;
+    }
+
+    Optional<BookWrite> find(String writeId) {
+        return Optional.ofNullable(recentWrites.getIfPresent(writeId));
+    }
+
+    // Stop accepting writes and let the writer commit what is queued
+    void stop(Duration timeout) throws InterruptedException {
+        running = false;
+        writer.join(timeout);
+        // Writes that raced with the shutdown
+        List<BookWrite> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(write -> write.fail(new IllegalStateException("The write queue shut down before this write")));
+    }
+
+    private void drain() {
+        List<BookWrite> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                BookWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                groupSizes.record(group.size());
+                groupCommitter.accept(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The committer settles every write; this only guards the writer thread
+                log.error("Write group of {} failed", group.size(), e);
+                group.forEach(write -> write.fail(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+}
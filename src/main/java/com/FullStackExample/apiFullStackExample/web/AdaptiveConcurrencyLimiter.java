@@ -0,0 +1,82 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+// Caps concurrent requests with a limit that adapts to how the server copes (additive increase,
+// multiplicative decrease): a request slower than the target latency, or finishing while other threads
+// wait for a pooled connection, cuts the limit by 10%, at most once per target latency so one slow burst
+// counts once; a fast request while the limit is at least half used raises it by one.
+// Acquire and release are a few atomic operations, without locks
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicLong lastDecrease;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final IntSupplier threadsAwaitingConnection;
+    private final LongSupplier nanoClock;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos,
+                                      IntSupplier threadsAwaitingConnection) {
+        this(initialLimit, minLimit, maxLimit, targetLatencyNanos, threadsAwaitingConnection, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos,
+                               IntSupplier threadsAwaitingConnection, LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = new AtomicInteger(initialLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.nanoClock = nanoClock;
+        this.lastDecrease = new AtomicLong(nanoClock.getAsLong() - targetLatencyNanos);
+    }
+
+    // Whether the request may run; if so, release must follow
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit.get()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        if (latencyNanos > targetLatencyNanos || threadsAwaitingConnection.getAsInt() > 0) {
+            decrease();
+        } else {
+            int current = limit.get();
+            if (current < maxLimit && running * 2 >= current) {
+                limit.compareAndSet(current, current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease() {
+        long now = nanoClock.getAsLong();
+        long last = lastDecrease.get();
+        if (now - last < targetLatencyNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+        limit.updateAndGet(current -> Math.max(minLimit, (int) (current * DECREASE_FACTOR)));
+    }
+}
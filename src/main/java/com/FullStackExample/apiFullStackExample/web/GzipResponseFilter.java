@@ -0,0 +1,97 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.List;
+
+// Gzip compression of response bodies larger than a threshold, for clients sending Accept-Encoding: gzip.
+// Used instead of Tomcat's server.compression, which never compresses responses with a strong ETag:
+// here a compressed response keeps a strong ETag of its own ("7" becomes "7-gzip").
+// The first bytes are buffered up to the threshold; past it, the body is compressed as it is written,
+// so large and streamed responses are never held in memory
+public class GzipResponseFilter extends OncePerRequestFilter {
+
+    // Suffix of the ETags of compressed responses
+    public static final String ETAG_SUFFIX = "-gzip";
+
+    private final int minResponseSize;
+    private final int level;
+    private final List<MediaType> mimeTypes;
+
+    public GzipResponseFilter(int minResponseSize, int level, List<MediaType> mimeTypes) {
+        this.minResponseSize = minResponseSize;
+        this.level = level;
+        this.mimeTypes = mimeTypes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Async requests come back through the filter with the wrapper of their first dispatch
+        GzipResponseWrapper wrapper = WebUtils.getNativeResponse(response, GzipResponseWrapper.class);
+        if (wrapper == null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!acceptsGzip(request)) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            wrapper = new GzipResponseWrapper(response, minResponseSize, level, mimeTypes);
+        }
+        filterChain.doFilter(request, wrapper);
+        if (!isAsyncStarted(request)) {
+            wrapper.finish();
+        }
+    }
+
+    // The body of an async request is finished on its final dispatch
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    // For live streams (server-sent events, change feeds): every flush reaches the client right away,
+    // compressed with a sync flush if the body is compressed, instead of waiting for the size threshold
+    public static void flushEagerly(HttpServletResponse response) {
+        GzipResponseWrapper wrapper = WebUtils.getNativeResponse(response, GzipResponseWrapper.class);
+        if (wrapper != null) {
+            wrapper.flushEagerly();
+        }
+    }
+
+    static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && !isZeroQuality(parts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,247 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Response whose body is buffered until it reaches the threshold, then either gzipped or written as is.
+// The decision is taken once, before anything reaches the client, so headers can still change
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final int level;
+    private final List<MediaType> mimeTypes;
+
+    private final byte[] buffer;
+    private int buffered;
+    // Null while buffering, then the gzip stream or the response's own stream
+    private OutputStream target;
+    private GZIPOutputStream gzip;
+    // Content-Length set by the application, applied only if the body is not compressed
+    private long contentLength = -1;
+    // Live streams: a flush sends the body so far instead of waiting for the threshold
+    private boolean eagerFlush;
+
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    GzipResponseWrapper(HttpServletResponse response, int minResponseSize, int level, List<MediaType> mimeTypes) {
+        super(response);
+        this.level = level;
+        this.mimeTypes = mimeTypes;
+        this.buffer = new byte[minResponseSize];
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            outputStream = new BufferingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            contentLength = Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        // While buffering there is nothing to send yet: committing would fix the headers too early
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null && eagerFlush) {
+            startBody(true);
+        }
+        if (target != null) {
+            target.flush();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        restart();
+        contentLength = -1;
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        restart();
+    }
+
+    void flushEagerly() {
+        eagerFlush = true;
+    }
+
+    // Write whatever is still buffered and end the gzip stream (the container closes the response)
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null) {
+            if (contentLength < 0 && buffered > 0 && !isCommitted()) {
+                contentLength = buffered;
+            }
+            startBody(false);
+        }
+        if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    // Choose between gzip and the plain stream, then send the buffered bytes
+    private void startBody(boolean large) throws IOException {
+        if (large && isCompressible()) {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            String eTag = getHeader(HttpHeaders.ETAG);
+            if (eTag != null && eTag.startsWith("\"") && eTag.endsWith("\"") && eTag.length() > 1) {
+                super.setHeader(HttpHeaders.ETAG,
+                        eTag.substring(0, eTag.length() - 1) + GzipResponseFilter.ETAG_SUFFIX + "\"");
+            }
+            gzip = new GZIPOutputStream(getResponse().getOutputStream(), GZIP_BUFFER_SIZE, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+            target = gzip;
+        } else {
+            if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            target = getResponse().getOutputStream();
+        }
+        if (buffered > 0) {
+            target.write(buffer, 0, buffered);
+            buffered = 0;
+        }
+    }
+
+    private boolean isCompressible() {
+        int status = getStatus();
+        if (status == HttpStatus.NO_CONTENT.value() || status == HttpStatus.PARTIAL_CONTENT.value()
+                || status == HttpStatus.NOT_MODIFIED.value() || containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        String contentType = getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return mimeTypes.stream().anyMatch(mimeType -> mimeType.equalsTypeAndSubtype(mediaType));
+    }
+
+    private void restart() {
+        buffered = 0;
+        target = null;
+        gzip = null;
+    }
+
+    private class BufferingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (target == null && buffered < buffer.length) {
+                buffer[buffered++] = (byte) b;
+                return;
+            }
+            if (target == null) {
+                startBody(true);
+            }
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null && buffered + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, buffered, len);
+                buffered += len;
+                return;
+            }
+            if (target == null) {
+                startBody(true);
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Below the threshold the body is kept until it is finished
+            if (target == null && eagerFlush) {
+                startBody(true);
+            }
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException("Non-blocking writes are not supported with gzip compression");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Protects the expensive endpoints (search, facets) so a few heavy clients cannot starve the connection pool
+// for everyone: each client gets a token bucket (429 Too Many Requests when it is empty), and the requests
+// admitted run under an adaptive concurrency limit (503 Service Unavailable past it). Both responses carry a
+// Retry-After. Clients are told apart by remote address, or by a header such as an API key when configured.
+// Without a rate limiter only the concurrency limit applies
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final List<String> paths;
+    private final String clientHeader;
+    private final long retryAfterSeconds;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public LoadSheddingFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                              List<String> paths, String clientHeader, Duration retryAfter,
+                              MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.paths = paths;
+        this.clientHeader = clientHeader == null || clientHeader.isBlank() ? null : clientHeader;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.rateLimited = Counter.builder("books.load-shedding.rejected")
+                .description("Requests rejected by the load shedding filter")
+                .tag("reason", "rate-limit")
+                .register(meterRegistry);
+        this.shed = Counter.builder("books.load-shedding.rejected")
+                .description("Requests rejected by the load shedding filter")
+                .tag("reason", "concurrency-limit")
+                .register(meterRegistry);
+        Gauge.builder("books.load-shedding.concurrency-limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on concurrent requests")
+                .register(meterRegistry);
+        Gauge.builder("books.load-shedding.in-flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests running under the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : paths) {
+            if (pathMatcher.match(pattern, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = rateLimiter != null ? rateLimiter.tryAcquire(clientKey(request)) : 0;
+        if (wait > 0) {
+            rateLimited.increment();
+            long retryAfter = TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1);
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfter, "Rate limit exceeded");
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds, "Server busy, retry later");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (clientHeader != null) {
+            String value = request.getHeader(clientHeader);
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+}
@@ -0,0 +1,82 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import com.FullStackExample.apiFullStackExample.datasource.ReadRouting;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+// Read-your-writes with replicas: the reads of a client that has just written go to the primary, so it sees
+// its own writes whatever the replica lag. Write requests set a cookie with the time of the write; requests
+// carrying a cookie younger than the window (and the write requests themselves) read from the primary.
+// Requests with an unsafe method are writes, except on the read-only paths (POST /batch-get only reads)
+// Every request starts with a fresh choice of replica (see ReadRouting)
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    static final String LAST_WRITE_COOKIE = "books-last-write";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration window;
+    private final List<String> readOnlyPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ReadRoutingFilter(Duration window, List<String> readOnlyPaths) {
+        this.window = window;
+        this.readOnlyPaths = readOnlyPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod()) && !isReadOnlyPath(request);
+        if (write) {
+            Cookie cookie = new Cookie(LAST_WRITE_COOKIE, String.valueOf(now));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (window.toMillis() + 999) / 1000));
+            response.addCookie(cookie);
+        }
+        if (write || wroteRecently(request, now)) {
+            ReadRouting.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.reset();
+        }
+    }
+
+    private boolean isReadOnlyPath(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : readOnlyPaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean wroteRecently(HttpServletRequest request, long now) {
+        Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        try {
+            long lastWrite = Long.parseLong(cookie.getValue());
+            return now - lastWrite < window.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+-- Writers no longer queue behind one row. The catalog version (V6) was a single row that every writing
+-- statement updated and kept locked until its transaction committed, and the change log (V8) locked the
+-- same row to number changes in commit order: concurrent writes committed one after another.
+
+-- The catalog version is now the sum of 16 counters. A writing transaction bumps one of them, picked by
+-- its transaction id, once and at commit (deferred trigger), so writers only wait for each other when
+-- they commit at the same moment on the same counter. The sum still changes with every committed write
+-- and becomes visible together with it; transactions that change no row no longer bump it.
+CREATE TABLE IF NOT EXISTS catalog_version_slot (
+    slot    SMALLINT PRIMARY KEY CHECK (slot BETWEEN 0 AND 15),
+    version BIGINT   NOT NULL
+);
+
+-- Carry the current version over, so the ETags handed out so far never match a later catalog
+INSERT INTO catalog_version_slot (slot, version)
+SELECT s, CASE WHEN s = 0 THEN (SELECT version FROM catalog_state WHERE id = 1) ELSE 0 END
+FROM generate_series(0, 15) s
+ON CONFLICT (slot) DO NOTHING;
+
+ALTER TABLE catalog_state DROP COLUMN IF EXISTS version;
+
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger AS $$
+BEGIN
+    IF current_setting('books.catalog_version_bumped', true) IS DISTINCT FROM 'on' THEN
+        UPDATE catalog_version_slot SET version = version + 1
+        WHERE slot = CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT) % 16;
+        -- Transaction-local: the next transaction of this connection bumps again
+        PERFORM set_config('books.catalog_version_bumped', 'on', true);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS book_catalog_version ON book;
+DROP TRIGGER IF EXISTS book_catalog_version_write ON book;
+DROP TRIGGER IF EXISTS book_catalog_version_truncate ON book;
+
+CREATE CONSTRAINT TRIGGER book_catalog_version_write
+    AFTER INSERT OR UPDATE OR DELETE ON book
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION bump_catalog_version();
+
+CREATE TRIGGER book_catalog_version_truncate
+    AFTER TRUNCATE ON book
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+
+-- Changes are numbered without any lock. A change may now become visible after changes numbered higher
+-- (its writer commits later), which BookChangeFeed handles by holding back the changes after a gap until
+-- the gap is filled or every transaction that could still fill it has ended.
+CREATE OR REPLACE FUNCTION book_change_log() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        INSERT INTO book_change (seq, operation) VALUES (nextval('book_change_seq'), 'TRUNCATE');
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO book_change (seq, operation, book_id)
+        SELECT nextval('book_change_seq'), 'DELETE', o.id
+        FROM (SELECT id FROM old_rows ORDER BY id) o;
+    ELSE
+        INSERT INTO book_change (seq, operation, book_id, title, author, publication_year, category, version)
+        SELECT nextval('book_change_seq'), CASE TG_OP WHEN 'INSERT' THEN 'CREATE' ELSE 'UPDATE' END,
+               n.id, n.title, n.author, n.publication_year, n.category, n.version
+        FROM (SELECT * FROM new_rows ORDER BY id) n;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -8,13 +8,19 @@ CREATE TABLE IF NOT EXISTS book (
 );
 
 -- If there's existing data in 'libro' table, migrate it to the new 'book' table
-INSERT INTO book (title, author, publication_year, category)
-SELECT 
-    nombre, 
-    autor, 
-    ano_publicacion, 
-    categoria
-FROM libro;
+-- (only once, and only when the legacy table is present)
+DO $$
+BEGIN
+    IF to_regclass('libro') IS NOT NULL AND NOT EXISTS (SELECT 1 FROM book) THEN
+        INSERT INTO book (title, author, publication_year, category)
+        SELECT 
+            nombre, 
+            autor, 
+            ano_publicacion, 
+            categoria
+        FROM libro;
+    END IF;
+END $$;
 
 -- You can drop the old table after verifying the migration
 -- DROP TABLE libro;
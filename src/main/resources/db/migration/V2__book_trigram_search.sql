@@ -0,0 +1,7 @@
+-- Trigram indexes so substring searches on title and author stop scanning the whole table.
+-- The indexed expressions match the LOWER(...) LIKE '%x%' predicates used by BookRepository.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_book_title_trgm ON book USING gin (lower(title) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_book_author_trgm ON book USING gin (lower(author) gin_trgm_ops);
@@ -0,0 +1,15 @@
+-- Hibernate now allocates book ids from book_id_seq in blocks of 50 (pooled optimizer),
+-- which lets inserts be batched. The sequence increment must match the allocation size.
+-- book.id is a SERIAL column when created by V1, or an identity column when created by Hibernate.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema()
+                 AND table_name = 'book'
+                 AND column_name = 'id'
+                 AND is_identity = 'YES') THEN
+        ALTER TABLE book ALTER COLUMN id SET INCREMENT BY 50;
+    ELSE
+        ALTER SEQUENCE book_id_seq INCREMENT BY 50;
+    END IF;
+END $$;
@@ -0,0 +1,2 @@
+-- B-tree index for the set-based title+author duplicate check done per bulk import batch
+CREATE INDEX IF NOT EXISTS idx_book_title_author ON book (title, author);
@@ -0,0 +1,31 @@
+-- Title and author are unique together: creates and updates rely on this constraint instead of
+-- checking first. Duplicates that got past the old check-then-insert are not removed here, which book to
+-- keep is not ours to decide: the migration fails and lists them, to be renamed or deleted before it runs again.
+DO $$
+DECLARE
+    duplicate_pairs BIGINT;
+    listed TEXT;
+BEGIN
+    SELECT count(*) INTO duplicate_pairs
+    FROM (SELECT 1 FROM book GROUP BY title, author HAVING count(*) > 1) d;
+
+    IF duplicate_pairs > 0 THEN
+        SELECT string_agg(format('%L by %L: ids %s', title, author, ids), E'\n' ORDER BY title, author)
+        INTO listed
+        FROM (SELECT title, author, string_agg(CAST(id AS TEXT), ', ' ORDER BY id) AS ids
+              FROM book
+              GROUP BY title, author
+              HAVING count(*) > 1
+              ORDER BY title, author
+              LIMIT 100) d;
+        RAISE EXCEPTION E'% title and author pairs are used by more than one book. Rename or delete the duplicates, then restart to run this migration again (first 100 listed):\n%',
+            duplicate_pairs, listed;
+    END IF;
+END $$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_book_title_author ON book (title, author);
+
+ALTER TABLE book ADD CONSTRAINT uq_book_title_author UNIQUE USING INDEX uq_book_title_author;
+
+-- The unique index also serves the bulk import duplicate check
+DROP INDEX IF EXISTS idx_book_title_author;
@@ -0,0 +1,27 @@
+-- Optimistic locking: every update checks and increments the book version (exposed as its ETag).
+-- Existing rows start at version 0; on PostgreSQL 11+ a constant default does not rewrite the table.
+ALTER TABLE book ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Catalog-wide change counter behind the ETags of the book list and page responses.
+-- It is bumped once per writing statement inside the writing transaction, so it only becomes
+-- visible together with the change itself. Statements that touch no rows bump it too, which only
+-- costs clients a refetch.
+CREATE TABLE IF NOT EXISTS catalog_state (
+    id      SMALLINT PRIMARY KEY CHECK (id = 1),
+    version BIGINT   NOT NULL
+);
+
+INSERT INTO catalog_state (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE catalog_state SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS book_catalog_version ON book;
+
+CREATE TRIGGER book_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON book
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
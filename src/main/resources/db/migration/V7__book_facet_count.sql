@@ -0,0 +1,111 @@
+-- Book counts per facet value, kept up to date by triggers so facet counts and the distinct
+-- category/author lists never need a GROUP BY or DISTINCT over the whole book table.
+-- facet is 'total' (single row, value ''), 'category', 'author' or 'year' (value is the year).
+CREATE TABLE IF NOT EXISTS book_facet_count (
+    facet      VARCHAR(16)  NOT NULL,
+    value      VARCHAR(255) NOT NULL,
+    book_count BIGINT       NOT NULL,
+    PRIMARY KEY (facet, value)
+);
+
+-- Top authors by count
+CREATE INDEX IF NOT EXISTS idx_book_facet_count_top ON book_facet_count (facet, book_count DESC, value);
+
+-- The facet values a book counts towards
+CREATE OR REPLACE FUNCTION book_facets(category TEXT, author TEXT, publication_year INTEGER)
+RETURNS TABLE (facet TEXT, value TEXT) AS $$
+    SELECT 'total', ''
+    UNION ALL SELECT 'author', author
+    UNION ALL SELECT 'category', category WHERE category IS NOT NULL
+    UNION ALL SELECT 'year', publication_year::TEXT WHERE publication_year IS NOT NULL
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Statement-level triggers read the affected rows from transition tables and apply one aggregated
+-- delta per facet value, so a batched insert of 500 books updates each counter once. Updates apply
+-- the net delta: an update that keeps category, author and year does not touch any counter.
+-- Every delta is an upsert in key order, so concurrent writers lock counters in the same order
+-- and cannot deadlock on them.
+CREATE OR REPLACE FUNCTION book_facet_count_apply() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO book_facet_count AS c (facet, value, book_count)
+        SELECT f.facet, f.value, count(*)
+        FROM new_rows b CROSS JOIN LATERAL book_facets(b.category, b.author, b.publication_year) f
+        GROUP BY f.facet, f.value
+        ORDER BY f.facet, f.value
+        ON CONFLICT (facet, value) DO UPDATE SET book_count = c.book_count + EXCLUDED.book_count;
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO book_facet_count AS c (facet, value, book_count)
+        SELECT f.facet, f.value, -count(*)
+        FROM old_rows b CROSS JOIN LATERAL book_facets(b.category, b.author, b.publication_year) f
+        GROUP BY f.facet, f.value
+        ORDER BY f.facet, f.value
+        ON CONFLICT (facet, value) DO UPDATE SET book_count = c.book_count + EXCLUDED.book_count;
+    ELSE
+        INSERT INTO book_facet_count AS c (facet, value, book_count)
+        SELECT d.facet, d.value, sum(d.n)
+        FROM (SELECT f.facet, f.value, 1 AS n
+              FROM new_rows b CROSS JOIN LATERAL book_facets(b.category, b.author, b.publication_year) f
+              UNION ALL
+              SELECT f.facet, f.value, -1
+              FROM old_rows b CROSS JOIN LATERAL book_facets(b.category, b.author, b.publication_year) f) d
+        GROUP BY d.facet, d.value
+        HAVING sum(d.n) <> 0
+        ORDER BY d.facet, d.value
+        ON CONFLICT (facet, value) DO UPDATE SET book_count = c.book_count + EXCLUDED.book_count;
+    END IF;
+
+    -- Values no book has any more disappear (the total row stays)
+    DELETE FROM book_facet_count c
+    WHERE c.book_count <= 0
+      AND c.facet <> 'total'
+      AND (c.facet, c.value) IN (SELECT f.facet, f.value
+                                 FROM old_rows b
+                                 CROSS JOIN LATERAL book_facets(b.category, b.author, b.publication_year) f);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION book_facet_count_truncate() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM book_facet_count WHERE facet <> 'total';
+    UPDATE book_facet_count SET book_count = 0 WHERE facet = 'total';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS book_facet_count_insert ON book;
+DROP TRIGGER IF EXISTS book_facet_count_update ON book;
+DROP TRIGGER IF EXISTS book_facet_count_delete ON book;
+DROP TRIGGER IF EXISTS book_facet_count_truncate ON book;
+
+CREATE TRIGGER book_facet_count_insert
+    AFTER INSERT ON book REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION book_facet_count_apply();
+
+CREATE TRIGGER book_facet_count_update
+    AFTER UPDATE ON book REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION book_facet_count_apply();
+
+CREATE TRIGGER book_facet_count_delete
+    AFTER DELETE ON book REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION book_facet_count_apply();
+
+CREATE TRIGGER book_facet_count_truncate
+    AFTER TRUNCATE ON book
+    FOR EACH STATEMENT EXECUTE FUNCTION book_facet_count_truncate();
+
+-- Initial counts (the only full-table aggregation)
+DELETE FROM book_facet_count;
+
+INSERT INTO book_facet_count (facet, value, book_count)
+SELECT 'total', '', 0;
+
+INSERT INTO book_facet_count AS c (facet, value, book_count)
+SELECT f.facet, f.value, count(*)
+FROM book b CROSS JOIN LATERAL book_facets(b.category, b.author, b.publication_year) f
+GROUP BY f.facet, f.value
+ON CONFLICT (facet, value) DO UPDATE SET book_count = EXCLUDED.book_count;
@@ -0,0 +1,69 @@
+-- Ordered log of book changes for catalog replicas, which tail it (GET /api/books/changes/stream)
+-- instead of reloading the whole catalog. Rows are written by triggers in the writing transaction,
+-- so a change is visible exactly when the write is, whatever path wrote it (API, import, write-behind).
+-- The new values are logged for creates and updates; deletes only carry the book id. A TRUNCATE is
+-- logged as one row without a book: replicas must reload.
+CREATE SEQUENCE IF NOT EXISTS book_change_seq;
+
+CREATE TABLE IF NOT EXISTS book_change (
+    seq              BIGINT       PRIMARY KEY,
+    operation        VARCHAR(8)   NOT NULL,
+    book_id          BIGINT,
+    title            VARCHAR(255),
+    author           VARCHAR(255),
+    publication_year INTEGER,
+    category         VARCHAR(255),
+    version          BIGINT,
+    changed_at       TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+-- Retention pruning deletes by age
+CREATE INDEX IF NOT EXISTS idx_book_change_changed_at ON book_change (changed_at);
+
+-- Highest sequence number removed by retention pruning: older offsets cannot be resumed
+ALTER TABLE catalog_state ADD COLUMN IF NOT EXISTS change_log_pruned_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Readers tail the log with seq > offset, so sequence numbers must be handed out in commit order:
+-- a change numbered after a change still uncommitted would let a reader skip the latter. Each trigger
+-- first locks the catalog_state row, which every writing statement already updates (V6), so writers
+-- numbering changes run one after another until they commit.
+CREATE OR REPLACE FUNCTION book_change_log() RETURNS trigger AS $$
+BEGIN
+    PERFORM 1 FROM catalog_state WHERE id = 1 FOR UPDATE;
+
+    IF TG_OP = 'TRUNCATE' THEN
+        INSERT INTO book_change (seq, operation) VALUES (nextval('book_change_seq'), 'TRUNCATE');
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO book_change (seq, operation, book_id)
+        SELECT nextval('book_change_seq'), 'DELETE', o.id
+        FROM (SELECT id FROM old_rows ORDER BY id) o;
+    ELSE
+        INSERT INTO book_change (seq, operation, book_id, title, author, publication_year, category, version)
+        SELECT nextval('book_change_seq'), CASE TG_OP WHEN 'INSERT' THEN 'CREATE' ELSE 'UPDATE' END,
+               n.id, n.title, n.author, n.publication_year, n.category, n.version
+        FROM (SELECT * FROM new_rows ORDER BY id) n;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS book_change_log_insert ON book;
+DROP TRIGGER IF EXISTS book_change_log_update ON book;
+DROP TRIGGER IF EXISTS book_change_log_delete ON book;
+DROP TRIGGER IF EXISTS book_change_log_truncate ON book;
+
+CREATE TRIGGER book_change_log_insert
+    AFTER INSERT ON book REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION book_change_log();
+
+CREATE TRIGGER book_change_log_update
+    AFTER UPDATE ON book REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION book_change_log();
+
+CREATE TRIGGER book_change_log_delete
+    AFTER DELETE ON book REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION book_change_log();
+
+CREATE TRIGGER book_change_log_truncate
+    AFTER TRUNCATE ON book
+    FOR EACH STATEMENT EXECUTE FUNCTION book_change_log();
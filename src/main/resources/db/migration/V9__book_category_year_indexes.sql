@@ -0,0 +1,6 @@
+-- B-tree indexes for the equality and range filters of BookRepository (see BookRepositoryQueryPlanTests).
+-- Category, alone or with a year: findByCategory and findByMultipleCriteria
+CREATE INDEX IF NOT EXISTS idx_book_category_year ON book (category, publication_year);
+
+-- Year, exact or range: findByPublicationYear, findByPublicationYearBetween and findByMultipleCriteria
+CREATE INDEX IF NOT EXISTS idx_book_publication_year ON book (publication_year);
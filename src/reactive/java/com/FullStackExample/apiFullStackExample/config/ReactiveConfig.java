@@ -0,0 +1,42 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.sql.DataSource;
+
+// Reactive profile (application-reactive.properties): the application runs on WebFlux and Netty, and the API
+// reads and writes books over R2DBC, through the pooled ConnectionFactory Spring Boot builds from spring.r2dbc.*.
+// Spring Boot would pick Tomcat, which is on the classpath for the default mode, so Netty is declared here.
+// JDBC stays for Flyway and the background jobs. Spring Boot skips its DataSource once a ConnectionFactory
+// exists, so the JDBC pool is declared here too (DataSourceConfig declares its own with replicas).
+// In the default servlet mode none of this is configured
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(DataSource.class)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
@@ -0,0 +1,207 @@
+package com.FullStackExample.apiFullStackExample.controller;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookPageDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.exception.DuplicateBookException;
+import com.FullStackExample.apiFullStackExample.exception.StaleBookVersionException;
+import com.FullStackExample.apiFullStackExample.service.ReactiveBookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// The books API on WebFlux for the reactive profile: the same paths, status codes and ETags as BookController,
+// with non-blocking handlers. Lists are returned as a Flux that is written while the rows arrive, as a JSON
+// array or, with Accept: application/x-ndjson, one book per line; the database is only read as fast as the
+// client takes the response. Batch, import/export, write-behind, change log, facet and suggest endpoints
+// only exist on the default (servlet) stack
+@RestController
+@RequestMapping("/api/books")
+@CrossOrigin(origins = "*")
+@Tag(name = "Books", description = "API for library book management")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookController {
+
+    @Autowired
+    private ReactiveBookService bookService;
+
+    @GetMapping
+    @Operation(summary = "Get all books",
+               description = "Streams every book in id order. " +
+                             "The ETag changes whenever the catalog changes; send it back in If-None-Match to get a 304")
+    public Mono<ResponseEntity<Flux<BookDTO>>> getAllBooks(
+            @Parameter(description = "ETag of a previously received list")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Read before the books, so the ETag is never newer than the body
+        return bookService.getCatalogVersion().map(catalogVersion -> {
+            String matchingETag = BookETags.matchIfNoneMatch(ifNoneMatch, catalogVersion);
+            if (matchingETag != null) {
+                return BookETags.<Flux<BookDTO>>notModified(matchingETag);
+            }
+            return BookETags.ok(BookETags.of(catalogVersion), bookService.getAllBooks());
+        });
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of books",
+               description = "Returns books ordered by ID using keyset pagination. " +
+                             "Pass the nextCursor of a page as the cursor of the next request")
+    public Mono<ResponseEntity<?>> getBooksPage(
+            @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of books to return (1-1000, default 50)", example = "50")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "ETag of a previously received page")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return bookService.getCatalogVersion().<ResponseEntity<?>>flatMap(catalogVersion -> {
+            String matchingETag = BookETags.matchIfNoneMatch(ifNoneMatch, catalogVersion);
+            if (matchingETag != null) {
+                return Mono.just(BookETags.<BookPageDTO>notModified(matchingETag));
+            }
+            return bookService.getBooksPage(cursor, limit).map(page -> BookETags.ok(BookETags.of(catalogVersion), page));
+        }).onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get book by ID",
+               description = "Returns a specific book based on its unique ID. " +
+                             "The ETag is the book version; send it back in If-None-Match to get a 304")
+    public Mono<ResponseEntity<BookDTO>> getBookById(
+            @Parameter(description = "Unique ID of the book", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "ETag of a previously received version of the book")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return bookService.getBookById(id).map(book -> {
+            String matchingETag = BookETags.matchIfNoneMatch(ifNoneMatch, book.getVersion());
+            if (matchingETag != null) {
+                return BookETags.<BookDTO>notModified(matchingETag);
+            }
+            return BookETags.ok(BookETags.of(book.getVersion()), book);
+        }).defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    @Operation(summary = "Create new book",
+               description = "Creates a new book in the library with the provided data")
+    public Mono<ResponseEntity<?>> createBook(
+            @Parameter(description = "Book data to create", required = true)
+            @Valid @RequestBody BookDTO bookDTO) {
+        return bookService.createBook(bookDTO)
+                          .<ResponseEntity<?>>map(newBook -> ResponseEntity.status(HttpStatus.CREATED)
+                                                                           .eTag(BookETags.of(newBook.getVersion()))
+                                                                           .varyBy(HttpHeaders.ACCEPT)
+                                                                           .body(newBook))
+                          .onErrorResume(DuplicateBookException.class,
+                                  e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage())));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update book",
+               description = "Updates an existing book's data. With If-Match set to the ETag the book was read with, " +
+                             "the update only applies if nobody changed the book in between")
+    public Mono<ResponseEntity<?>> updateBook(
+            @Parameter(description = "Unique ID of the book", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "New book data", required = true)
+            @Valid @RequestBody BookDTO bookDTO,
+            @Parameter(description = "ETag of the book version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null && !BookETags.isWildcard(ifMatch)) {
+            expectedVersion = BookETags.requiredVersion(ifMatch);
+            if (expectedVersion == null) {
+                return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                                               .body("If-Match must be a single strong ETag or *"));
+            }
+        }
+        return bookService.updateBook(id, bookDTO, expectedVersion)
+                          .<ResponseEntity<?>>map(updatedBook -> BookETags.ok(BookETags.of(updatedBook.getVersion()), updatedBook))
+                          .defaultIfEmpty(ResponseEntity.notFound().build())
+                          .onErrorResume(DuplicateBookException.class,
+                                  e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage())))
+                          .onErrorResume(StaleBookVersionException.class,
+                                  e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage())));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete book",
+               description = "Permanently deletes a book from the library")
+    public Mono<ResponseEntity<Void>> deleteBook(
+            @Parameter(description = "Unique ID of the book", required = true, example = "1")
+            @PathVariable Long id) {
+        return bookService.deleteBook(id)
+                          .map(deleted -> deleted ? ResponseEntity.noContent().<Void>build()
+                                                  : ResponseEntity.notFound().<Void>build());
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search books by multiple criteria",
+               description = "Search for books using any combination of title, author, category, publication year " +
+                             "and year range (either end may be left open). All given criteria are combined. " +
+                             "Results are streamed in id order, up to the limit")
+    public Flux<BookDTO> searchBooks(
+            @Parameter(description = "Book title (partial match, case insensitive)")
+            @RequestParam(required = false) String title,
+            @Parameter(description = "Book author (partial match, case insensitive)")
+            @RequestParam(required = false) String author,
+            @Parameter(description = "Book category (exact match)")
+            @RequestParam(required = false) String category,
+            @Parameter(description = "Publication year")
+            @RequestParam(required = false) Integer publicationYear,
+            @Parameter(description = "Start year for range search")
+            @RequestParam(required = false) Integer startYear,
+            @Parameter(description = "End year for range search")
+            @RequestParam(required = false) Integer endYear,
+            @Parameter(description = "Maximum number of books (1-1000, default 100)", example = "100")
+            @RequestParam(required = false) Integer limit) {
+        BookSearchCriteria criteria = new BookSearchCriteria(title, author, category, publicationYear,
+                                                             startYear, endYear);
+        return bookService.searchBooks(criteria, limit);
+    }
+
+    @GetMapping("/categories")
+    @Operation(summary = "Get all book categories",
+               description = "Returns a list of all unique book categories in the library")
+    public Flux<String> getAllCategories() {
+        return bookService.getAllCategories();
+    }
+
+    @GetMapping("/authors")
+    @Operation(summary = "Get all book authors",
+               description = "Returns a list of all unique book authors in the library")
+    public Flux<String> getAllAuthors() {
+        return bookService.getAllAuthors();
+    }
+
+    // A streamed response fails before its first element is written (an invalid search limit), so it still
+    // gets a status; @Valid errors get the same field map as GlobalExceptionHandler gives on the servlet stack
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return ResponseEntity.badRequest().body(errors);
+    }
+}
@@ -0,0 +1,184 @@
+package com.FullStackExample.apiFullStackExample.repository;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Non-blocking counterpart of BookRepository for the reactive profile, over R2DBC. The statements match the
+// JPA ones (same predicates, so the same indexes), and rows are emitted as the driver decodes them: a Flux
+// only pulls from the connection as fast as its subscriber, usually the HTTP response, consumes it.
+// The triggers behind the catalog version, the facet counts and the change log apply to these writes too
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookRepository {
+
+    private static final String COLUMNS = "id, title, author, publication_year, category, version";
+    private static final String TITLE_SIMILARITY = "similarity(LOWER(title), LOWER(:title))";
+    private static final String AUTHOR_SIMILARITY = "similarity(LOWER(author), LOWER(:author))";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<BookDTO> findAllBooks() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM book ORDER BY id")
+                             .map(ReactiveBookRepository::toDTO)
+                             .all();
+    }
+
+    public Mono<BookDTO> findBookById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM book WHERE id = :id")
+                             .bind("id", id)
+                             .map(ReactiveBookRepository::toDTO)
+                             .one();
+    }
+
+    // Keyset pagination: books after the given id, in id order
+    public Flux<BookDTO> findPageAfterId(long id, int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM book WHERE id > :id ORDER BY id LIMIT :limit")
+                             .bind("id", id)
+                             .bind("limit", limit)
+                             .map(ReactiveBookRepository::toDTO)
+                             .all();
+    }
+
+    // Books matching every given criterion, ranked as BookSearchRepository.search
+    public Flux<BookDTO> search(BookSearchCriteria criteria, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        String sql = "SELECT " + COLUMNS + " FROM book" + where(criteria, parameters) +
+                     " ORDER BY " + orderBy(criteria) + " LIMIT :limit";
+        parameters.put("limit", limit);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(ReactiveBookRepository::toDTO).all();
+    }
+
+    // Catalog-wide change counter, see V10__catalog_version_without_row_lock.sql
+    public Mono<Long> findCatalogVersion() {
+        return databaseClient.sql("SELECT CAST(COALESCE(SUM(version), 0) AS BIGINT) AS version FROM catalog_version_slot")
+                             .map(row -> row.get("version", Long.class))
+                             .one();
+    }
+
+    // Distinct categories and authors come from the facet summary table, as in BookRepository
+    public Flux<String> findAllCategories() {
+        return databaseClient.sql("SELECT value FROM book_facet_count WHERE facet = 'category' ORDER BY value")
+                             .map(row -> row.get("value", String.class))
+                             .all();
+    }
+
+    public Flux<String> findAllAuthors() {
+        return databaseClient.sql("SELECT value FROM book_facet_count WHERE facet = 'author' ORDER BY value")
+                             .map(row -> row.get("value", String.class))
+                             .all();
+    }
+
+    // Insert a book with an id from book_id_seq. A title+author already used violates uq_book_title_author
+    public Mono<BookDTO> insert(BookDTO book) {
+        return bindNullable(databaseClient.sql("INSERT INTO book (title, author, publication_year, category, version) " +
+                                               "VALUES (:title, :author, :publicationYear, :category, 0) " +
+                                               "RETURNING " + COLUMNS), book)
+                .map(ReactiveBookRepository::toDTO)
+                .one();
+    }
+
+    // Update a book if its version matches (or expectedVersion is BookRepository.ANY_VERSION), incrementing
+    // the version. Empty when the book does not exist or has another version
+    public Mono<BookDTO> update(Long id, BookDTO book, long expectedVersion) {
+        return bindNullable(databaseClient.sql("UPDATE book SET title = :title, author = :author, " +
+                                               "publication_year = :publicationYear, category = :category, " +
+                                               "version = version + 1 WHERE id = :id " +
+                                               "AND (:expectedVersion = " + BookRepository.ANY_VERSION +
+                                               " OR version = :expectedVersion) RETURNING " + COLUMNS), book)
+                .bind("id", id)
+                .bind("expectedVersion", expectedVersion)
+                .map(ReactiveBookRepository::toDTO)
+                .one();
+    }
+
+    // Delete a book, returning the number of deleted rows
+    public Mono<Long> deleteBookById(Long id) {
+        return databaseClient.sql("DELETE FROM book WHERE id = :id")
+                             .bind("id", id)
+                             .fetch()
+                             .rowsUpdated();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("SELECT 1 FROM book WHERE id = :id")
+                             .bind("id", id)
+                             .map(row -> true)
+                             .first()
+                             .defaultIfEmpty(false);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, BookDTO book) {
+        spec = spec.bind("title", book.getTitle()).bind("author", book.getAuthor());
+        spec = book.getPublicationYear() == null ? spec.bindNull("publicationYear", Integer.class)
+                                                 : spec.bind("publicationYear", book.getPublicationYear());
+        return book.getCategory() == null ? spec.bindNull("category", String.class)
+                                          : spec.bind("category", book.getCategory());
+    }
+
+    // Same conditions as BookSearchRepositoryImpl, in SQL
+    private static String where(BookSearchCriteria criteria, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.getTitle() != null) {
+            conditions.add("LOWER(title) LIKE LOWER('%' || :title || '%')");
+            parameters.put("title", criteria.getTitle());
+        }
+        if (criteria.getAuthor() != null) {
+            conditions.add("LOWER(author) LIKE LOWER('%' || :author || '%')");
+            parameters.put("author", criteria.getAuthor());
+        }
+        if (criteria.getCategory() != null) {
+            conditions.add("category = :category");
+            parameters.put("category", criteria.getCategory());
+        }
+        if (criteria.getPublicationYear() != null) {
+            conditions.add("publication_year = :publicationYear");
+            parameters.put("publicationYear", criteria.getPublicationYear());
+        }
+        if (criteria.getStartYear() != null) {
+            conditions.add("publication_year >= :startYear");
+            parameters.put("startYear", criteria.getStartYear());
+        }
+        if (criteria.getEndYear() != null) {
+            conditions.add("publication_year <= :endYear");
+            parameters.put("endYear", criteria.getEndYear());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    // Same order as BookSearchRepositoryImpl: by title and author similarity when searching text, then by id
+    private static String orderBy(BookSearchCriteria criteria) {
+        if (criteria.getTitle() != null && criteria.getAuthor() != null) {
+            return TITLE_SIMILARITY + " + " + AUTHOR_SIMILARITY + " DESC, id";
+        }
+        if (criteria.getTitle() != null) {
+            return TITLE_SIMILARITY + " DESC, id";
+        }
+        if (criteria.getAuthor() != null) {
+            return AUTHOR_SIMILARITY + " DESC, id";
+        }
+        return "id";
+    }
+
+    private static BookDTO toDTO(Readable row) {
+        return new BookDTO(row.get("id", Long.class), row.get("title", String.class), row.get("author", String.class),
+                row.get("publication_year", Integer.class), row.get("category", String.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,108 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookPageDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.exception.DuplicateBookException;
+import com.FullStackExample.apiFullStackExample.exception.StaleBookVersionException;
+import com.FullStackExample.apiFullStackExample.repository.BookRepository;
+import com.FullStackExample.apiFullStackExample.repository.ReactiveBookRepository;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// BookService for the reactive profile, with the same limits, cursors and errors. Nothing runs until the
+// returned Mono or Flux is subscribed, and no call blocks a thread. There is no in-memory index, cache or
+// write-behind queue on this path: reads go to the database and each write is a single statement
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookService {
+
+    @Autowired
+    private ReactiveBookRepository bookRepository;
+
+    // All books in id order, emitted as they are read
+    public Flux<BookDTO> getAllBooks() {
+        return bookRepository.findAllBooks();
+    }
+
+    public Mono<Long> getCatalogVersion() {
+        return bookRepository.findCatalogVersion();
+    }
+
+    // Keyset pagination, as BookService.getBooksPage
+    public Mono<BookPageDTO> getBooksPage(String cursor, Integer limit) {
+        return Mono.defer(() -> {
+            long afterId = BookService.decodeCursor(cursor);
+            int pageSize = BookService.resolvePageSize(limit);
+            // Fetch one extra row to know whether another page follows
+            return bookRepository.findPageAfterId(afterId, pageSize + 1).collectList().map(books -> {
+                boolean hasNext = books.size() > pageSize;
+                if (hasNext) {
+                    books = books.subList(0, pageSize);
+                }
+                String nextCursor = hasNext ? BookService.encodeCursor(books.get(books.size() - 1).getId()) : null;
+                return new BookPageDTO(books, nextCursor, hasNext);
+            });
+        });
+    }
+
+    // Empty when there is no such book
+    public Mono<BookDTO> getBookById(Long id) {
+        return bookRepository.findBookById(id);
+    }
+
+    // Every given filter applies, the year range included; at most limit books (default 100)
+    public Flux<BookDTO> searchBooks(BookSearchCriteria criteria, Integer limit) {
+        return Flux.defer(() -> bookRepository.search(criteria, BookService.resolveSearchLimit(limit)));
+    }
+
+    public Flux<String> getAllCategories() {
+        return bookRepository.findAllCategories();
+    }
+
+    public Flux<String> getAllAuthors() {
+        return bookRepository.findAllAuthors();
+    }
+
+    public Mono<BookDTO> createBook(BookDTO bookDTO) {
+        return bookRepository.insert(bookDTO)
+                             .onErrorMap(DataIntegrityViolationException.class, ReactiveBookService::translateConflict);
+    }
+
+    // Empty when the book does not exist; a StaleBookVersionException when it has another version
+    public Mono<BookDTO> updateBook(Long id, BookDTO bookDTO, Long expectedVersion) {
+        return bookRepository.update(id, bookDTO, expectedVersion == null ? BookRepository.ANY_VERSION : expectedVersion)
+                             .onErrorMap(DataIntegrityViolationException.class, ReactiveBookService::translateConflict)
+                             .switchIfEmpty(Mono.defer(() -> staleOrMissing(id, expectedVersion)));
+    }
+
+    // Whether the book existed
+    public Mono<Boolean> deleteBook(Long id) {
+        return bookRepository.deleteBookById(id).map(rows -> rows > 0);
+    }
+
+    // As BookService.translateConflict; over R2DBC the constraint name is only part of the message
+    private static RuntimeException translateConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcDataIntegrityViolationException violation && violation.getMessage() != null
+                    && violation.getMessage().contains(BookService.TITLE_AUTHOR_CONSTRAINT)) {
+                return new DuplicateBookException(e);
+            }
+        }
+        return e;
+    }
+
+    // Only a failed conditional update needs a second query to tell a missing book from a stale version
+    private Mono<BookDTO> staleOrMissing(Long id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.empty();
+        }
+        return bookRepository.existsById(id)
+                             .flatMap(exists -> exists ? Mono.error(new StaleBookVersionException(id)) : Mono.empty());
+    }
+}
@@ -0,0 +1,180 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many replicas tailing the change log at once, half as server-sent events and half as NDJSON, while
+// books are created, updated and deleted. Every subscriber must receive every change, in log order, and
+// the same changes as a paged read of the log; reports the delay from the writing transaction to delivery.
+// Run with ./gradlew benchmarkTest
+@Tag("benchmark")
+@ActiveProfiles("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "books.search.in-memory.enabled=false")
+@DirtiesContext
+class BookChangeStreamLoadTests {
+
+    private static final int SUBSCRIBERS = Integer.getInteger("bench.subscribers", 1_000);
+    private static final int BOOKS = Integer.getInteger("bench.changed-books", 200);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void everySubscriberReceivesEveryChangeInOrder() throws Exception {
+        ExecutorService subscribers = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            HttpResponse<String> position = client.send(get("/api/books/changes"), HttpResponse.BodyHandlers.ofString());
+            long start = Long.parseLong(position.headers().firstValue("Change-Log-Position").orElseThrow());
+            String prefix = "ChangeStream " + System.nanoTime() + " ";
+
+            // The last change is the delete of the last book: subscribers read until they see it
+            CountDownLatch connected = new CountDownLatch(SUBSCRIBERS);
+            List<Long> lastBookId = new ArrayList<>();
+            LatencyStats delivery = new LatencyStats("change delivery (" + SUBSCRIBERS + " subscribers)");
+            List<Future<List<Long>>> received = new ArrayList<>();
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                boolean serverSentEvents = i % 2 == 0;
+                received.add(subscribers.submit(() -> subscribe(client, start, serverSentEvents, connected,
+                        lastBookId, delivery)));
+            }
+            assertThat(connected.await(60, TimeUnit.SECONDS)).isTrue();
+
+            long writeStart = System.nanoTime();
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < BOOKS; i++) {
+                HttpResponse<String> created = client.send(write("POST", "/api/books", prefix + i),
+                        HttpResponse.BodyHandlers.ofString());
+                ids.add(objectMapper.readTree(created.body()).path("id").asLong());
+            }
+            for (int i = 0; i < BOOKS; i++) {
+                client.send(write("PUT", "/api/books/" + ids.get(i), prefix + i + " (2nd edition)"),
+                        HttpResponse.BodyHandlers.discarding());
+            }
+            synchronized (lastBookId) {
+                lastBookId.add(ids.get(BOOKS - 1));
+                lastBookId.notifyAll();
+            }
+            for (Long id : ids) {
+                client.send(HttpRequest.newBuilder(uri("/api/books/" + id)).DELETE().build(),
+                        HttpResponse.BodyHandlers.discarding());
+            }
+
+            List<List<Long>> positions = new ArrayList<>();
+            for (Future<List<Long>> subscriber : received) {
+                positions.add(subscriber.get(60, TimeUnit.SECONDS));
+            }
+            double seconds = (System.nanoTime() - writeStart) / 1_000_000_000.0;
+
+            // Every subscriber saw the same changes as a paged read of the log
+            List<Long> expected = new ArrayList<>();
+            HttpResponse<String> page = client.send(get("/api/books/changes?limit=1000&after=" + start),
+                    HttpResponse.BodyHandlers.ofString());
+            for (JsonNode change : objectMapper.readTree(page.body())) {
+                expected.add(change.path("seq").asLong());
+            }
+            assertThat(positions).allSatisfy(subscriber -> assertThat(subscriber).isEqualTo(expected));
+            assertThat(expected).hasSizeGreaterThanOrEqualTo(3 * BOOKS);
+
+            System.out.println(delivery.summary());
+            System.out.printf("%-45s %d changes to %d subscribers in %.1f s (%.0f deliveries/s)%n", "",
+                    expected.size(), SUBSCRIBERS, seconds, delivery.count() / seconds);
+        } finally {
+            // Drops the open streams, so failed runs do not wait for them
+            client.shutdownNow();
+            subscribers.shutdownNow();
+        }
+    }
+
+    // Read the stream until the delete of the last book, returning the positions received
+    private List<Long> subscribe(HttpClient client, long after, boolean serverSentEvents, CountDownLatch connected,
+                                 List<Long> lastBookId, LatencyStats delivery) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/books/changes/stream?after=" + after))
+                .header("Accept", serverSentEvents ? "text/event-stream" : "application/x-ndjson")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        connected.countDown();
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        List<Long> positions = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (serverSentEvents) {
+                    if (!line.startsWith("data: ")) {
+                        continue;
+                    }
+                    line = line.substring("data: ".length());
+                } else if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode change = objectMapper.readTree(line);
+                positions.add(change.path("seq").asLong());
+                delivery.record(Duration.between(Instant.parse(change.path("changedAt").asText()), Instant.now()).toNanos());
+                if ("DELETE".equals(change.path("operation").asText()) && change.path("bookId").asLong() == last(lastBookId)) {
+                    return positions;
+                }
+            }
+        }
+        throw new IllegalStateException("Stream ended after " + positions.size() + " changes");
+    }
+
+    // Id of the last book, once known (deletes only start after it is set)
+    private static long last(List<Long> lastBookId) throws InterruptedException {
+        synchronized (lastBookId) {
+            while (lastBookId.isEmpty()) {
+                lastBookId.wait();
+            }
+            return lastBookId.get(0);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest write(String method, String path, String title) {
+        String body = "{\"title\":\"" + title + "\",\"author\":\"Change Author\",\"publicationYear\":2000,\"category\":\"Novel\"}";
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
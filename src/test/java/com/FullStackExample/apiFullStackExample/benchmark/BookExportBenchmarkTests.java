@@ -0,0 +1,98 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Export throughput on a 1M-row catalog: rows per second for CSV, NDJSON and gzipped CSV, and the peak heap
+// while exporting (it should not grow with the catalog). Run with ./gradlew benchmarkTest against a scratch
+// PostgreSQL database.
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "books.search.in-memory.enabled=false")
+@ActiveProfiles("benchmark")
+class BookExportBenchmarkTests {
+
+    private static final int SEED_ROWS = 1_000_000;
+    private static final int MEASURED_RUNS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void exportThroughputAndHeap() throws Exception {
+        seedBooks();
+        System.out.println("Export of " + SEED_ROWS + " books");
+        for (String[] run : List.of(new String[] {"csv", "identity"}, new String[] {"ndjson", "identity"},
+                new String[] {"csv", "gzip"})) {
+            String format = run[0];
+            String encoding = run[1];
+            export(format, encoding);
+            List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            System.gc();
+            heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long best = Long.MAX_VALUE;
+            long bytes = 0;
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                long start = System.nanoTime();
+                bytes = export(format, encoding);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            long peakHeap = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            System.out.printf("%-6s %-8s %,12d rows/s  %,6d ms  %,6d MB body  %,5d MB peak heap%n", format, encoding,
+                    SEED_ROWS * 1_000_000_000L / best, best / 1_000_000, bytes >> 20, peakHeap >> 20);
+        }
+    }
+
+    // Read the whole body, returning its size
+    private long export(String format, String encoding) throws Exception {
+        HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/books/export?format=" + format))
+                .header("Accept-Encoding", encoding)
+                .build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        try (InputStream body = response.body()) {
+            return body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    // Seed 1M synthetic books once; later runs reuse them
+    private void seedBooks() {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM book", Long.class);
+        if (existing != null && existing == SEED_ROWS) {
+            return;
+        }
+        jdbcTemplate.execute("TRUNCATE book");
+        jdbcTemplate.update(
+                "INSERT INTO book (title, author, publication_year, category) " +
+                "SELECT 'Book ' || md5(g::text), " +
+                "       'Author ' || md5((g % 50000)::text), " +
+                "       1900 + g % 125, " +
+                "       (ARRAY['Novel', 'Poetry', 'Science', 'History', 'Fantasy'])[g % 5 + 1] " +
+                "FROM generate_series(1, ?) AS g", SEED_ROWS);
+    }
+}
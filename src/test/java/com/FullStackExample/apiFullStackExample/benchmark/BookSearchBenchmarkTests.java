@@ -0,0 +1,95 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.repository.BookRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Substring search latency on a 1M-row catalog, with and without the trigram indexes (V2 migration).
+// Run with ./gradlew benchmarkTest against a scratch PostgreSQL database.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("benchmark")
+class BookSearchBenchmarkTests {
+
+    private static final int SEED_ROWS = 1_000_000;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void substringSearchBeforeAndAfterTrigramIndexes() {
+        seedBooks();
+        List<String> titleTerms = jdbcTemplate.queryForList(
+                "SELECT substring(title FROM 8 FOR 8) FROM book ORDER BY random() LIMIT 50", String.class);
+        List<String> authorTerms = jdbcTemplate.queryForList(
+                "SELECT substring(author FROM 10 FOR 8) FROM book ORDER BY random() LIMIT 50", String.class);
+
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_book_title_trgm");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_book_author_trgm");
+        jdbcTemplate.execute("ANALYZE book");
+        List<LatencyStats> before = measureSearches("seq scan", titleTerms, authorTerms);
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V2__book_trigram_search.sql"))
+                .execute(dataSource);
+        jdbcTemplate.execute("ANALYZE book");
+        List<LatencyStats> after = measureSearches("trigram", titleTerms, authorTerms);
+
+        System.out.println("Substring search on " + SEED_ROWS + " books");
+        before.forEach(stats -> System.out.println(stats.summary()));
+        after.forEach(stats -> System.out.println(stats.summary()));
+
+        assertThat(after).allSatisfy(stats -> assertThat(stats.count()).isEqualTo(MEASURED_ITERATIONS));
+    }
+
+    private List<LatencyStats> measureSearches(String label, List<String> titleTerms, List<String> authorTerms) {
+        return List.of(
+                LatencyStats.measure("findByTitleContainingIgnoreCase (" + label + ")",
+                        WARMUP_ITERATIONS, MEASURED_ITERATIONS,
+                        i -> bookRepository.findByTitleContainingIgnoreCase(titleTerms.get(i % titleTerms.size()))),
+                LatencyStats.measure("findByAuthorContainingIgnoreCase (" + label + ")",
+                        WARMUP_ITERATIONS, MEASURED_ITERATIONS,
+                        i -> bookRepository.findByAuthorContainingIgnoreCase(authorTerms.get(i % authorTerms.size()))),
+                LatencyStats.measure("search title (" + label + ")",
+                        WARMUP_ITERATIONS, MEASURED_ITERATIONS,
+                        i -> bookRepository.search(new BookSearchCriteria(titleTerms.get(i % titleTerms.size()),
+                                null, null, null, null, null), Limit.of(100)))
+        );
+    }
+
+    // Seed 1M synthetic books once; later runs reuse them
+    private void seedBooks() {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM book", Long.class);
+        if (existing != null && existing == SEED_ROWS) {
+            return;
+        }
+        jdbcTemplate.execute("TRUNCATE book");
+        jdbcTemplate.update(
+                "INSERT INTO book (title, author, publication_year, category) " +
+                "SELECT 'Book ' || md5(g::text), " +
+                "       'Author ' || md5((g % 50000)::text), " +
+                "       1900 + g % 125, " +
+                "       (ARRAY['Novel', 'Poetry', 'Science', 'History', 'Fantasy'])[g % 5 + 1] " +
+                "FROM generate_series(1, ?) AS g", SEED_ROWS);
+    }
+}
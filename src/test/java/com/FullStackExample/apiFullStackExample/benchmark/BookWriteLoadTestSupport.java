@@ -0,0 +1,139 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Concurrent clients creating books through POST /api/books, each waiting for its 201. Reports writes/s,
+// latency and the database transactions committed (from pg_stat_database), so running both subclasses
+// shows how many writes share a commit in write-behind mode. Run with ./gradlew benchmarkTest
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "books.search.in-memory.enabled=false")
+@DirtiesContext
+abstract class BookWriteLoadTestSupport {
+
+    private static final int WRITERS = Integer.getInteger("bench.writers", 200);
+    private static final int WRITES_PER_WRITER = Integer.getInteger("bench.writes-per-writer", 50);
+    private static final String TITLE_PREFIX = "WriteLoad ";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void createsUnderConcurrentWriters() throws Exception {
+        jdbcTemplate.update("DELETE FROM book WHERE title LIKE ?", TITLE_PREFIX + "%");
+        String mode = environment.getProperty("books.write-behind.enabled", Boolean.class, false)
+                ? "write-behind" : "direct";
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build()) {
+            // Warm up the JIT and the connection pool
+            for (int i = 0; i < 200; i++) {
+                create(client, "warmup " + i, null);
+            }
+            run(client, mode);
+        } finally {
+            jdbcTemplate.update("DELETE FROM book WHERE title LIKE ?", TITLE_PREFIX + "%");
+        }
+    }
+
+    private void run(HttpClient client, String mode) throws Exception {
+        LatencyStats stats = new LatencyStats("POST /api/books (" + mode + ", " + WRITERS + " writers)");
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        long commitsBefore = committedTransactions();
+        long elapsedNanos;
+        try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < WRITERS; i++) {
+                int writer = i;
+                writers.execute(() -> {
+                    try {
+                        start.await();
+                        for (int n = 0; n < WRITES_PER_WRITER; n++) {
+                            create(client, writer + "-" + n, stats);
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        firstError.compareAndSet(null, e.toString());
+                    }
+                });
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            writers.shutdown();
+            writers.awaitTermination(10, TimeUnit.MINUTES);
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+        long commits = committedTransactions() - commitsBefore;
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.println(stats.summary());
+        System.out.printf("%-45s %.0f writes/s, %d commits (%.0f commits/s, %.1f writes per commit), %d failed writers%n",
+                "", stats.count() / seconds, commits, commits / seconds,
+                commits == 0 ? 0 : (double) stats.count() / commits, errors.get());
+        if (firstError.get() != null) {
+            System.out.println("First failure: " + firstError.get());
+        }
+
+        assertThat(stats.count()).isEqualTo(WRITERS * WRITES_PER_WRITER);
+    }
+
+    private void create(HttpClient client, String key, LatencyStats stats) throws Exception {
+        String body = "{\"title\":\"" + TITLE_PREFIX + key + "\",\"author\":\"Load Author\","
+                + "\"publicationYear\":2000,\"category\":\"Novel\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/books"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        if (stats != null) {
+            stats.record(elapsed);
+        }
+    }
+
+    // Transactions committed in this database so far. Backends report their counters when they go idle
+    // (at most once a second), so wait for the last ones before reading
+    private long committedTransactions() throws InterruptedException {
+        Thread.sleep(1_500);
+        jdbcTemplate.execute("SELECT pg_stat_clear_snapshot()");
+        Long commits = jdbcTemplate.queryForObject(
+                "SELECT xact_commit FROM pg_stat_database WHERE datname = current_database()", Long.class);
+        return commits == null ? 0 : commits;
+    }
+}
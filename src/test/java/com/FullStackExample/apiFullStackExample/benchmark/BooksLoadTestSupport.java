@@ -0,0 +1,216 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Drives the running application with thousands of concurrent HTTP clients walking /api/books/page,
+// which waits on a database query per request, and reports throughput, latency, platform threads and
+// heap use. Subclasses choose the threading mode or the reactive stack through their active profiles;
+// run with ./gradlew benchmarkTest against a scratch PostgreSQL database and compare the reports.
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "books.search.in-memory.enabled=false")
+// Each mode gets its own server; the other one must not keep its threads and connections alive
+@DirtiesContext
+abstract class BooksLoadTestSupport {
+
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 5_000);
+    private static final int PAGES_PER_CLIENT = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final int MIN_ROWS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Test
+    void pageRequestsUnderConcurrentClients() throws Exception {
+        seedBooks();
+        String mode = "reactive".equals(environment.getProperty("spring.main.web-application-type")) ? "reactive"
+                : environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                ? "virtual threads" : "platform threads";
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build()) {
+            run(client, mode);
+        }
+    }
+
+    private void run(HttpClient client, String mode) throws Exception {
+        // Warm up the JIT, the connection pool and the database buffers
+        walkPages(client, null);
+
+        LatencyStats stats = new LatencyStats("GET /api/books/page (" + mode + ", " + CLIENTS + " clients)");
+        AtomicInteger errors = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        ResourceSampler sampler = new ResourceSampler();
+
+        long elapsedNanos;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor(); sampler) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.execute(() -> {
+                    try {
+                        start.await();
+                        walkPages(client, stats);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        firstError.compareAndSet(null, e.toString());
+                    }
+                });
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            clients.shutdown();
+            clients.awaitTermination(10, TimeUnit.MINUTES);
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+
+        double throughput = stats.count() * 1_000_000_000.0 / elapsedNanos;
+        System.out.println(stats.summary());
+        System.out.printf("%-45s %.0f req/s, %d failed clients, peak platform threads %d (%d besides the carriers)%n",
+                "", throughput, errors.get(), threads.getPeakThreadCount(), sampler.peakThreads());
+        System.out.printf("%-45s peak live heap %d MB (after GC), peak heap %d MB%n",
+                "", sampler.peakLiveHeapBytes() / (1024 * 1024), sampler.peakHeapBytes() / (1024 * 1024));
+
+        if (firstError.get() != null) {
+            System.out.println("First failure: " + firstError.get());
+        }
+
+        assertThat(stats.count()).isGreaterThan(0);
+    }
+
+    // Follow the cursor for a fixed number of pages, recording the latency of each request
+    private void walkPages(HttpClient client, LatencyStats stats) throws Exception {
+        String cursor = null;
+        for (int page = 0; page < PAGES_PER_CLIENT; page++) {
+            String uri = "http://localhost:" + port + "/api/books/page?limit=" + PAGE_SIZE
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - start;
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+            if (stats != null) {
+                stats.record(elapsed);
+            }
+            JsonNode body = objectMapper.readTree(response.body());
+            cursor = body.path("nextCursor").asText(null);
+        }
+    }
+
+    // Samples the JVM every 50 ms while the clients run. Server and clients share the JVM, so the figures include
+    // the clients' share, the same in every mode. Platform threads are counted without the virtual-thread carriers
+    // (ForkJoinPool workers, which run the clients, and the requests in virtual-thread mode) and the HTTP client's
+    // own threads; live heap is what the last collection left, peak heap also counts garbage not yet collected
+    private static final class ResourceSampler implements AutoCloseable {
+
+        private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                runnable -> new Thread(runnable, "load-test-sampler"));
+        private volatile int peakThreads;
+        private volatile long peakLiveHeapBytes;
+        private volatile long peakHeapBytes;
+
+        ResourceSampler() {
+            System.gc();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            executor.scheduleAtFixedRate(this::sample, 0, 50, TimeUnit.MILLISECONDS);
+        }
+
+        private void sample() {
+            int serverThreads = (int) Thread.getAllStackTraces().keySet().stream()
+                    .map(Thread::getName)
+                    .filter(name -> !name.startsWith("ForkJoinPool") && !name.startsWith("HttpClient")
+                            && !name.equals("load-test-sampler"))
+                    .count();
+            long liveHeap = heapPools.stream()
+                    .map(MemoryPoolMXBean::getCollectionUsage)
+                    .filter(Objects::nonNull)
+                    .mapToLong(MemoryUsage::getUsed)
+                    .sum();
+            peakThreads = Math.max(peakThreads, serverThreads);
+            peakLiveHeapBytes = Math.max(peakLiveHeapBytes, liveHeap);
+        }
+
+        int peakThreads() {
+            return peakThreads;
+        }
+
+        long peakLiveHeapBytes() {
+            return peakLiveHeapBytes;
+        }
+
+        long peakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+            peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        }
+    }
+
+    // Make sure there are enough books for every client to walk its pages
+    private void seedBooks() {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM book", Long.class);
+        if (existing != null && existing >= MIN_ROWS) {
+            return;
+        }
+        jdbcTemplate.update(
+                "INSERT INTO book (title, author, publication_year, category) " +
+                "SELECT 'Load ' || md5(g::text), 'Author ' || md5((g % 500)::text), 1900 + g % 125, 'Novel' " +
+                "FROM generate_series(1, ?) AS g", MIN_ROWS);
+    }
+}
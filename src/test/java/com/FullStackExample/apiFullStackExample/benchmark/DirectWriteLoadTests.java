@@ -0,0 +1,8 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// Write load test with one transaction per write
+@ActiveProfiles("benchmark")
+class DirectWriteLoadTests extends BookWriteLoadTestSupport {
+}
@@ -0,0 +1,57 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Collects latency samples (in nanoseconds) and reports percentiles
+final class LatencyStats {
+    
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+    
+    LatencyStats(String name) {
+        this.name = name;
+    }
+    
+    // Run the action for the warm-up iterations, then record the measured iterations
+    static LatencyStats measure(String name, int warmupIterations, int iterations, IntConsumer action) {
+        for (int i = 0; i < warmupIterations; i++) {
+            action.accept(i);
+        }
+        LatencyStats stats = new LatencyStats(name);
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            action.accept(i);
+            stats.record(System.nanoTime() - start);
+        }
+        return stats;
+    }
+    
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+    
+    synchronized int count() {
+        return count;
+    }
+    
+    // Nearest-rank percentile, in milliseconds
+    synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return sorted[Math.max(rank - 1, 0)] / 1_000_000.0;
+    }
+    
+    String summary() {
+        return String.format("%-45s n=%-6d p50=%9.3f ms  p99=%9.3f ms",
+                name, count(), percentileMillis(50), percentileMillis(99));
+    }
+}
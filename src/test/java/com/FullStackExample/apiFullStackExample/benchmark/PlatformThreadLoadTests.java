@@ -0,0 +1,8 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// Load test with the default Tomcat platform-thread pool
+@ActiveProfiles("benchmark")
+class PlatformThreadLoadTests extends BooksLoadTestSupport {
+}
@@ -0,0 +1,12 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Load test with the opt-in reactive profile (WebFlux and R2DBC). The test context only starts Netty when
+// the web application type is given here, the profile alone is read too late for that
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"books.search.in-memory.enabled=false", "spring.main.web-application-type=reactive"})
+@ActiveProfiles({"reactive", "benchmark"})
+class ReactiveLoadTests extends BooksLoadTestSupport {
+}
@@ -0,0 +1,128 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import com.FullStackExample.apiFullStackExample.datasource.ReplicaDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Read replica routing against two local PostgreSQL instances: the benchmark database on the primary and
+// one on a second instance (BENCH_REPLICA_URL, port 5433 by default) that does NOT replicate from it, so the
+// answer of each read shows which side served it. The second replica URL is a closed port, and must be skipped.
+// Run with ./gradlew benchmarkTest after starting the second instance
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "books.search.in-memory.enabled=false",
+                "books.datasource.replicas.urls=${BENCH_REPLICA_URL:jdbc:postgresql://127.0.0.1:5433/books_bench},"
+                        + "jdbc:postgresql://127.0.0.1:1/books_bench",
+                "books.datasource.replicas.connection-timeout=500ms"
+        })
+@ActiveProfiles("benchmark")
+@DirtiesContext
+class ReplicaRoutingTests {
+
+    private static final String REPLICA_URL = System.getenv().getOrDefault("BENCH_REPLICA_URL",
+            "jdbc:postgresql://127.0.0.1:5433/books_bench");
+    private static final String USERNAME = System.getenv().getOrDefault("BENCH_DATASOURCE_USERNAME", "postgres");
+    private static final String PASSWORD = System.getenv().getOrDefault("BENCH_DATASOURCE_PASSWORD", "root");
+    private static final String TITLE_PREFIX = "ReplicaRouting ";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    // The replica gets the schema, not the data
+    @BeforeAll
+    static void createReplicaSchema() throws Exception {
+        String database = REPLICA_URL.substring(REPLICA_URL.lastIndexOf('/') + 1);
+        String serverUrl = REPLICA_URL.substring(0, REPLICA_URL.lastIndexOf('/') + 1) + "postgres";
+        try (Connection connection = DriverManager.getConnection(serverUrl, USERNAME, PASSWORD);
+             Statement statement = connection.createStatement();
+             ResultSet exists = statement.executeQuery(
+                     "SELECT 1 FROM pg_database WHERE datname = '" + database + "'")) {
+            if (!exists.next()) {
+                statement.execute("CREATE DATABASE " + database);
+            }
+        }
+        Flyway.configure()
+              .dataSource(REPLICA_URL, USERNAME, PASSWORD)
+              .baselineOnMigrate(true)
+              .baselineVersion("0")
+              .load()
+              .migrate();
+    }
+
+    @Test
+    void readsGoToTheReplicaUnlessTheClientHasJustWritten() throws Exception {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, USERNAME, PASSWORD));
+        String title = TITLE_PREFIX + System.nanoTime();
+        try {
+            replica.update("INSERT INTO book (title, author, publication_year, category) VALUES (?, 'Replica', 2000, 'Test')",
+                    title + " on replica");
+
+            // Reads: from the live replica every time, the closed one being skipped
+            for (int i = 0; i < 4; i++) {
+                assertThat(search(title, null)).contains(title + " on replica");
+            }
+            assertThat(replicaDataSource.availableReplicas()).isEqualTo(1);
+
+            // Writes go to the primary, and the writer's next reads too
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(uri("/api/books"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"" + title + " on primary\","
+                            + "\"author\":\"Primary\",\"publicationYear\":2000,\"category\":\"Test\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(created.statusCode()).isEqualTo(201);
+            String cookie = created.headers().firstValue("Set-Cookie").orElseThrow().split(";")[0];
+
+            assertThat(search(title, cookie)).contains(title + " on primary").doesNotContain(title + " on replica");
+            assertThat(search(title, null)).contains(title + " on replica").doesNotContain(title + " on primary");
+        } finally {
+            replica.update("DELETE FROM book WHERE title LIKE ?", TITLE_PREFIX + "%");
+            jdbcTemplate.update("DELETE FROM book WHERE title LIKE ?", TITLE_PREFIX + "%");
+        }
+    }
+
+    private String search(String title, String cookie) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                uri("/api/books/search?title=" + URLEncoder.encode(title, StandardCharsets.UTF_8)));
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.body();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
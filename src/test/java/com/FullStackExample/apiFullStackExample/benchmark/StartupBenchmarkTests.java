@@ -0,0 +1,152 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Startup time and resident memory of the packaged application with the prod profile, as a boot jar, from
+// the CDS layout with a class data sharing archive, and with CDS and AOT (what the Dockerfile runs). Each
+// archive comes from a training run that exits once the context is refreshed. Startup is the JVM uptime
+// Spring Boot logs when the application is ready; memory is VmRSS at that point (Linux only).
+// Run with ./gradlew startupBenchmark, which builds the jars and passes the budgets for CDS and AOT
+@Tag("startup")
+class StartupBenchmarkTests {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in .* \\(process running for ([0-9.]+)\\)");
+    private static final int RUNS = Integer.getInteger("books.startup.runs", 3);
+    private static final long STARTUP_TIMEOUT_SECONDS = 120;
+
+    private static final String JAVA = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private static final String DATASOURCE_URL = System.getenv().getOrDefault("BENCH_DATASOURCE_URL",
+            "jdbc:postgresql://127.0.0.1:5432/books_bench");
+    private static final String USERNAME = System.getenv().getOrDefault("BENCH_DATASOURCE_USERNAME", "postgres");
+    private static final String PASSWORD = System.getenv().getOrDefault("BENCH_DATASOURCE_PASSWORD", "root");
+
+    @TempDir
+    private Path archives;
+
+    @Test
+    void startupTimeAndResidentMemory() throws Exception {
+        Path bootJar = Path.of(System.getProperty("books.startup.boot-jar"));
+        Path cdsJar = Path.of(System.getProperty("books.startup.cds-dir"), "app.jar");
+        long maxMillis = Long.getLong("books.startup.max-millis");
+        long maxRssMb = Long.getLong("books.startup.max-rss-mb");
+
+        Path cdsArchive = archives.resolve("app.jsa");
+        Path aotArchive = archives.resolve("app-aot.jsa");
+        train(cdsJar, cdsArchive);
+        train(cdsJar, aotArchive, "-Dspring.aot.enabled=true");
+
+        Startup jar = measure(bootJar);
+        Startup cds = measure(cdsJar, "-XX:SharedArchiveFile=" + cdsArchive);
+        Startup cdsAot = measure(cdsJar, "-XX:SharedArchiveFile=" + aotArchive, "-Dspring.aot.enabled=true");
+
+        System.out.println("Startup with the prod profile, median of " + RUNS + " runs");
+        System.out.println(jar.summary("boot jar"));
+        System.out.println(cds.summary("cds"));
+        System.out.println(cdsAot.summary("cds + aot"));
+
+        assertThat(cdsAot.millis()).as("CDS and AOT startup (ms)").isLessThanOrEqualTo(maxMillis);
+        if (cdsAot.rssMb() >= 0) {
+            assertThat(cdsAot.rssMb()).as("CDS and AOT resident memory (MB)").isLessThanOrEqualTo(maxRssMb);
+        }
+    }
+
+    // Start the application until its context is refreshed, recording the classes it loaded in the archive
+    private void train(Path jar, Path archive, String... options) throws Exception {
+        List<String> trainingOptions = new ArrayList<>(List.of(options));
+        trainingOptions.add("-XX:ArchiveClassesAtExit=" + archive);
+        trainingOptions.add("-Dspring.context.exit=onRefresh");
+        Process process = start(jar, trainingOptions);
+        try (BufferedReader output = output(process)) {
+            while (output.readLine() != null) {
+                // Drain the log so the process does not block on a full pipe
+            }
+        }
+        assertThat(process.waitFor(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        assertThat(archive).exists();
+    }
+
+    private Startup measure(Path jar, String... options) throws Exception {
+        List<Startup> runs = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            runs.add(startOnce(jar, List.of(options)));
+        }
+        runs.sort((a, b) -> Long.compare(a.millis(), b.millis()));
+        return runs.get(runs.size() / 2);
+    }
+
+    private Startup startOnce(Path jar, List<String> options) throws Exception {
+        Process process = start(jar, options);
+        try (BufferedReader output = output(process)) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+            String line;
+            while ((line = output.readLine()) != null && System.nanoTime() < deadline) {
+                Matcher started = STARTED.matcher(line);
+                if (started.find()) {
+                    long millis = Math.round(Double.parseDouble(started.group(1)) * 1000);
+                    return new Startup(millis, residentMemoryMb(process.pid()));
+                }
+            }
+            throw new IllegalStateException("The application did not start: " + jar);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private Process start(Path jar, List<String> options) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(JAVA);
+        command.addAll(options);
+        command.addAll(List.of("-Dspring.profiles.active=prod", "-jar", jar.toString(),
+                "--server.port=0",
+                "--spring.datasource.url=" + DATASOURCE_URL,
+                "--spring.datasource.username=" + USERNAME,
+                "--spring.datasource.password=" + PASSWORD,
+                // The index would load the whole benchmark catalog right after startup
+                "--books.search.in-memory.enabled=false"));
+        return new ProcessBuilder(command).directory(jar.getParent().toFile()).redirectErrorStream(true).start();
+    }
+
+    private static BufferedReader output(Process process) {
+        return new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    // VmRSS from /proc, or -1 where there is none
+    private static long residentMemoryMb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024;
+            }
+        }
+        return -1;
+    }
+
+    record Startup(long millis, long rssMb) {
+
+        String summary(String mode) {
+            return String.format("%-10s %,7d ms  %,5d MB RSS", mode, millis, rssMb);
+        }
+    }
+}
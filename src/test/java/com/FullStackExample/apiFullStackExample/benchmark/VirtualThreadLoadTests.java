@@ -0,0 +1,8 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// Load test with the opt-in virtual-threads profile
+@ActiveProfiles({"benchmark", "virtual-threads"})
+class VirtualThreadLoadTests extends BooksLoadTestSupport {
+}
@@ -0,0 +1,10 @@
+package com.FullStackExample.apiFullStackExample.benchmark;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+// Write load test with writes queued and group-committed by the write-behind writer
+@ActiveProfiles("benchmark")
+@TestPropertySource(properties = "books.write-behind.enabled=true")
+class WriteBehindWriteLoadTests extends BookWriteLoadTestSupport {
+}
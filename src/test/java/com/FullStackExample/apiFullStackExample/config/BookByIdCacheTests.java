@@ -0,0 +1,127 @@
+package com.FullStackExample.apiFullStackExample.config;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cache misses whose read returns after a write of the same book, through the caching annotations as
+// BookService uses them
+class BookByIdCacheTests {
+
+    // What the store returns and the miss in progress (Books is proxied, so they are kept here)
+    private static volatile BookDTO stored;
+    private static volatile int reads;
+    private static volatile CountDownLatch pause;
+    private static volatile CountDownLatch resume;
+
+    private AnnotationConfigApplicationContext context;
+    private Books books;
+
+    @BeforeEach
+    void setUp() {
+        stored = null;
+        reads = 0;
+        pause = null;
+        resume = new CountDownLatch(1);
+        context = new AnnotationConfigApplicationContext();
+        // Binds the cache TTLs ("10m") as Spring Boot does
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.register(CacheConfig.class, Books.class);
+        context.refresh();
+        books = context.getBean(Books.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void aMissReadBeforeAnUpdateDoesNotReplaceIt() throws Exception {
+        stored = new BookDTO(1L, "First Edition", "Author", 2000, "Novel", 1L);
+
+        CompletableFuture<Optional<BookDTO>> miss = missPausedAfterItsRead();
+        books.update(new BookDTO(1L, "Second Edition", "Author", 2000, "Novel", 2L));
+        resume.countDown();
+
+        assertThat(miss.get(5, TimeUnit.SECONDS)).map(BookDTO::getTitle).contains("First Edition");
+        assertThat(books.get(1L)).map(BookDTO::getTitle).contains("Second Edition");
+        assertThat(reads).isEqualTo(1);
+    }
+
+    @Test
+    void aMissReadBeforeADeleteDoesNotBringTheBookBack() throws Exception {
+        stored = new BookDTO(1L, "Deleted", "Author", 2000, "Novel", 1L);
+
+        CompletableFuture<Optional<BookDTO>> miss = missPausedAfterItsRead();
+        books.delete(1L);
+        resume.countDown();
+
+        assertThat(miss.get(5, TimeUnit.SECONDS)).isPresent();
+        assertThat(books.get(1L)).isEmpty();
+        assertThat(reads).isEqualTo(1);
+    }
+
+    @Test
+    void aMissReadBeforeACreateDoesNotHideTheBook() throws Exception {
+        CompletableFuture<Optional<BookDTO>> miss = missPausedAfterItsRead();
+        books.update(new BookDTO(1L, "Created", "Author", 2000, "Novel", 0L));
+        resume.countDown();
+
+        assertThat(miss.get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(books.get(1L)).map(BookDTO::getTitle).contains("Created");
+    }
+
+    // A get of book 1 that misses, reads the store and waits for resume before the cache stores what it read
+    private CompletableFuture<Optional<BookDTO>> missPausedAfterItsRead() throws InterruptedException {
+        CountDownLatch paused = new CountDownLatch(1);
+        pause = paused;
+        CompletableFuture<Optional<BookDTO>> miss = CompletableFuture.supplyAsync(() -> books.get(1L));
+        assertThat(paused.await(5, TimeUnit.SECONDS)).isTrue();
+        return miss;
+    }
+
+    static class Books {
+
+        @Cacheable(cacheNames = CacheConfig.BOOK_BY_ID, key = "#id")
+        public Optional<BookDTO> get(Long id) {
+            Optional<BookDTO> read = Optional.ofNullable(stored);
+            reads++;
+            CountDownLatch paused = pause;
+            if (paused != null) {
+                pause = null;
+                paused.countDown();
+                try {
+                    resume.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return read;
+        }
+
+        @CachePut(cacheNames = CacheConfig.BOOK_BY_ID, key = "#book.id")
+        public BookDTO update(BookDTO book) {
+            stored = book;
+            return book;
+        }
+
+        @CacheEvict(cacheNames = CacheConfig.BOOK_BY_ID, key = "#id")
+        public void delete(Long id) {
+            stored = null;
+        }
+    }
+}
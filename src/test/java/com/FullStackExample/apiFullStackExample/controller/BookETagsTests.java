@@ -0,0 +1,30 @@
+package com.FullStackExample.apiFullStackExample.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookETagsTests {
+
+    @Test
+    void ifNoneMatchReturnsTheClientTagMatchingTheVersion() {
+        assertThat(BookETags.of(7)).isEqualTo("\"7\"");
+        assertThat(BookETags.matchIfNoneMatch("\"7\"", 7)).isEqualTo("\"7\"");
+        assertThat(BookETags.matchIfNoneMatch("W/\"7\"", 7)).isEqualTo("W/\"7\"");
+        assertThat(BookETags.matchIfNoneMatch("\"3\", \"7-cbor-gzip\"", 7)).isEqualTo("\"7-cbor-gzip\"");
+        assertThat(BookETags.matchIfNoneMatch("*", 7)).isEqualTo("\"7\"");
+        assertThat(BookETags.matchIfNoneMatch("\"6\", \"70\"", 7)).isNull();
+        assertThat(BookETags.matchIfNoneMatch(null, 7)).isNull();
+    }
+
+    @Test
+    void ifMatchAcceptsOnlyASingleStrongVersion() {
+        assertThat(BookETags.requiredVersion(" \"12\" ")).isEqualTo(12L);
+        assertThat(BookETags.requiredVersion("\"12-gzip\"")).isEqualTo(12L);
+        assertThat(BookETags.isWildcard("*")).isTrue();
+        assertThat(BookETags.requiredVersion("W/\"12\"")).isNull();
+        assertThat(BookETags.requiredVersion("\"1\", \"2\"")).isNull();
+        assertThat(BookETags.requiredVersion("\"abc\"")).isNull();
+        assertThat(BookETags.requiredVersion("\"-1\"")).isNull();
+    }
+}
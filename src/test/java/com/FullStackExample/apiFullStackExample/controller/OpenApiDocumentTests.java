@@ -0,0 +1,76 @@
+package com.FullStackExample.apiFullStackExample.controller;
+
+import com.FullStackExample.apiFullStackExample.config.OpenApiConfig;
+import com.FullStackExample.apiFullStackExample.service.BookChangeFeed;
+import com.FullStackExample.apiFullStackExample.service.BookExportService;
+import com.FullStackExample.apiFullStackExample.service.BookImportService;
+import com.FullStackExample.apiFullStackExample.service.BookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.configuration.SpringDocConfiguration;
+import org.springdoc.core.properties.SpringDocConfigProperties;
+import org.springdoc.webmvc.core.configuration.SpringDocWebMvcConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// The OpenAPI document, built by springdoc from the controllers without a database.
+// ./gradlew generateOpenApiDocs runs this test with books.openapi.output set and packages the file it
+// writes as static/openapi.json, which the prod profile serves instead of scanning the controllers
+@WebMvcTest(controllers = BookController.class, properties = "springdoc.api-docs.enabled=true")
+@ImportAutoConfiguration({SpringDocConfiguration.class, SpringDocConfigProperties.class,
+        SpringDocWebMvcConfiguration.class})
+@Import(OpenApiConfig.class)
+class OpenApiDocumentTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private BookService bookService;
+
+    @MockBean
+    private BookImportService bookImportService;
+
+    @MockBean
+    private BookExportService bookExportService;
+
+    @MockBean
+    private BookChangeFeed changeFeed;
+
+    @MockBean
+    private BookChangeStreams changeStreams;
+
+    @Test
+    void documentsTheBookApi() throws Exception {
+        String document = mockMvc.perform(get("/api-docs"))
+                                 .andReturn()
+                                 .getResponse()
+                                 .getContentAsString();
+
+        JsonNode paths = objectMapper.readTree(document).path("paths");
+        assertThat(paths.has("/api/books")).isTrue();
+        assertThat(paths.has("/api/books/search")).isTrue();
+        assertThat(paths.has("/api/books/export")).isTrue();
+
+        String output = System.getProperty("books.openapi.output");
+        if (output != null) {
+            Path file = Path.of(output);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, document);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.FullStackExample.apiFullStackExample.controller;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The reactive profile end to end: WebFlux on a random port, R2DBC against the database.
+// R2DBC writes are not part of a test transaction, the books are deleted afterwards
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+class ReactiveBookControllerTests {
+
+    private static final String TITLE_PREFIX = "Reactive test ";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteBooks() {
+        jdbcTemplate.update("DELETE FROM book WHERE title LIKE ?", TITLE_PREFIX + "%");
+    }
+
+    @Test
+    void createsReadsUpdatesAndDeletesWithVersionETags() {
+        BookDTO created = webTestClient.post().uri("/api/books")
+                                       .bodyValue(new BookDTO(null, TITLE_PREFIX + "one", "Reactive author", 2001, "Reactive"))
+                                       .exchange()
+                                       .expectStatus().isCreated()
+                                       .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                                       .expectBody(BookDTO.class).returnResult().getResponseBody();
+        String path = "/api/books/" + created.getId();
+
+        webTestClient.get().uri(path).header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                     .exchange()
+                     .expectStatus().isNotModified();
+        webTestClient.put().uri(path).header(HttpHeaders.IF_MATCH, "\"0\"")
+                     .bodyValue(new BookDTO(null, TITLE_PREFIX + "one (2nd edition)", "Reactive author", 2002, "Reactive"))
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        webTestClient.put().uri(path).header(HttpHeaders.IF_MATCH, "\"0\"")
+                     .bodyValue(new BookDTO(null, TITLE_PREFIX + "one (3rd edition)", "Reactive author", 2003, "Reactive"))
+                     .exchange()
+                     .expectStatus().isEqualTo(412);
+        webTestClient.get().uri(path)
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody(BookDTO.class).value(book -> assertThat(book.getPublicationYear()).isEqualTo(2002));
+
+        webTestClient.delete().uri(path).exchange().expectStatus().isNoContent();
+        webTestClient.delete().uri(path).exchange().expectStatus().isNotFound();
+        webTestClient.get().uri(path).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void rejectsInvalidAndDuplicateBooks() {
+        webTestClient.post().uri("/api/books")
+                     .bodyValue(new BookDTO(null, "", "Reactive author", 2001, "Reactive"))
+                     .exchange()
+                     .expectStatus().isBadRequest()
+                     .expectBody(new ParameterizedTypeReference<Map<String, String>>() {})
+                     .value(errors -> assertThat(errors).containsKey("title"));
+
+        BookDTO book = new BookDTO(null, TITLE_PREFIX + "duplicate", "Reactive author", 2001, "Reactive");
+        webTestClient.post().uri("/api/books").bodyValue(book).exchange().expectStatus().isCreated();
+        webTestClient.post().uri("/api/books").bodyValue(book).exchange().expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void streamsSearchResultsAsNdjson() {
+        for (int i = 1; i <= 3; i++) {
+            webTestClient.post().uri("/api/books")
+                         .bodyValue(new BookDTO(null, TITLE_PREFIX + "stream " + i, "Reactive author", 2000 + i, "Reactive"))
+                         .exchange()
+                         .expectStatus().isCreated();
+        }
+
+        List<BookDTO> books = webTestClient.get().uri("/api/books/search?title={title}&startYear=2002&limit=10",
+                                                      TITLE_PREFIX + "stream")
+                                           .accept(MediaType.APPLICATION_NDJSON)
+                                           .exchange()
+                                           .expectStatus().isOk()
+                                           .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                                           .returnResult(BookDTO.class)
+                                           .getResponseBody()
+                                           .collectList()
+                                           .block();
+
+        assertThat(books).extracting(BookDTO::getTitle)
+                         .containsExactly(TITLE_PREFIX + "stream 2", TITLE_PREFIX + "stream 3");
+        webTestClient.get().uri("/api/books/search?limit=0")
+                     .exchange()
+                     .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void ranksTextSearchesBySimilarityThenId() {
+        for (String title : List.of("ranked novel, abridged", "ranked novel, annotated", "ranked novel")) {
+            webTestClient.post().uri("/api/books")
+                         .bodyValue(new BookDTO(null, TITLE_PREFIX + title, "Reactive author", 2000, "Reactive"))
+                         .exchange()
+                         .expectStatus().isCreated();
+        }
+
+        List<BookDTO> books = webTestClient.get().uri("/api/books/search?title={title}", TITLE_PREFIX + "ranked novel")
+                                           .accept(MediaType.APPLICATION_NDJSON)
+                                           .exchange()
+                                           .expectStatus().isOk()
+                                           .returnResult(BookDTO.class)
+                                           .getResponseBody()
+                                           .collectList()
+                                           .block();
+
+        // The exact title ranks first although it was created last
+        assertThat(books).extracting(BookDTO::getTitle).startsWith(TITLE_PREFIX + "ranked novel");
+    }
+}
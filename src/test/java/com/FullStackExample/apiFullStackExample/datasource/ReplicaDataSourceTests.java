@@ -0,0 +1,133 @@
+package com.FullStackExample.apiFullStackExample.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaDataSourceTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private final DataSource primary = dataSource(primaryConnection);
+    private final DataSource first = dataSource(firstConnection);
+    private final DataSource second = dataSource(secondConnection);
+
+    @Test
+    void balancesRequestsOverReplicasAndKeepsPinnedThreadsOnThePrimary() throws Exception {
+        ReplicaDataSource replicas = replicas(Duration.ofSeconds(10));
+
+        // A thread keeps its replica until the end of the request, the next request gets the next one
+        assertThat(replicas.getConnection()).isSameAs(firstConnection);
+        assertThat(replicas.getConnection()).isSameAs(firstConnection);
+        ReadRouting.reset();
+        assertThat(replicas.getConnection()).isSameAs(secondConnection);
+        ReadRouting.reset();
+        assertThat(replicas.getConnection()).isSameAs(firstConnection);
+
+        ReadRouting.onPrimary(() -> {
+            try {
+                assertThat(replicas.getConnection()).isSameAs(primaryConnection);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(ReadRouting.isPinnedToPrimary()).isFalse();
+        assertThat(meterRegistry.counter("books.datasource.primary-fallbacks").count()).isZero();
+    }
+
+    @Test
+    void skipsAFailedReplicaThenFallsBackToThePrimaryUntilItRecovers() throws Exception {
+        ReplicaDataSource replicas = replicas(Duration.ofMillis(200));
+        when(first.getConnection()).thenThrow(new SQLTransientConnectionException("Connection refused"));
+
+        assertThat(read(replicas)).isSameAs(secondConnection);
+        assertThat(read(replicas)).isSameAs(secondConnection);
+        assertThat(replicas.availableReplicas()).isEqualTo(1);
+        verify(first, times(1)).getConnection();
+
+        when(second.getConnection()).thenThrow(new SQLTransientConnectionException("Connection refused"));
+        assertThat(read(replicas)).isSameAs(primaryConnection);
+        assertThat(replicas.availableReplicas()).isZero();
+        assertThat(meterRegistry.counter("books.datasource.primary-fallbacks").count()).isEqualTo(1);
+
+        // After the retry interval one read tries the replica again
+        Thread.sleep(250);
+        doReturn(firstConnection).when(first).getConnection();
+        assertThat(read(replicas)).isSameAs(firstConnection);
+        assertThat(replicas.availableReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    void asyncWorkReadsWithTheRoutingOfTheRequestAndDoesNotKeepIt() throws Exception {
+        ReplicaDataSource replicas = replicas(Duration.ofSeconds(10));
+        AtomicReference<Connection> read = new AtomicReference<>();
+        Runnable task = () -> {
+            try {
+                read.set(replicas.getConnection());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        try (ExecutorService pooled = Executors.newSingleThreadExecutor()) {
+            ReadRouting.pinToPrimary();
+            pooled.submit(ReadRouting.propagate(task)).get();
+            assertThat(read.get()).isSameAs(primaryConnection);
+            ReadRouting.reset();
+
+            // The request's replica is carried over; the pooled thread is left without one
+            assertThat(replicas.getConnection()).isSameAs(firstConnection);
+            pooled.submit(ReadRouting.propagate(task)).get();
+            assertThat(read.get()).isSameAs(firstConnection);
+            assertThat(pooled.submit(ReadRouting::currentRoute).get()).isNull();
+        }
+    }
+
+    @AfterEach
+    void resetRouting() {
+        ReadRouting.reset();
+    }
+
+    // A read in a request of its own
+    private static Connection read(ReplicaDataSource replicas) throws SQLException {
+        ReadRouting.reset();
+        return replicas.getConnection();
+    }
+
+    private ReplicaDataSource replicas(Duration retryInterval) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", first);
+        replicas.put("replica-2", second);
+        return new ReplicaDataSource(primary, replicas, retryInterval, meterRegistry);
+    }
+
+    private static DataSource dataSource(Connection connection) {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenReturn(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+}
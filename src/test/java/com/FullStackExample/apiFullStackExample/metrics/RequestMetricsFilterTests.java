@@ -0,0 +1,50 @@
+package com.FullStackExample.apiFullStackExample.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetricsFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(meterRegistry, Duration.ofMinutes(1), 0);
+    private final RequestStatementInspector inspector = new RequestStatementInspector();
+
+    @Test
+    void recordsStatementsAndTimesPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/7");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/books/{id}");
+            inspector.inspect("select b1_0.id from book b1_0 where b1_0.id=?");
+            inspector.inspect("select b1_0.id from book b1_0 where b1_0.id=?");
+            inspector.inspect("select count(*) from book b1_0");
+            RequestMetrics.current().addDatabaseTime(TimeUnit.MILLISECONDS.toNanos(3));
+            RequestMetrics.current().addSerializationTime(TimeUnit.MILLISECONDS.toNanos(2));
+        });
+
+        assertThat(meterRegistry.get("books.request.statements").tag("uri", "/api/books/{id}")
+                .summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("books.request.statements.repeated").tag("uri", "/api/books/{id}")
+                .summary().totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.get("books.request.database").tag("method", "GET")
+                .timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+        assertThat(meterRegistry.get("books.request.serialization").tag("method", "GET")
+                .timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(2);
+        assertThat(RequestMetrics.current()).isNull();
+    }
+
+    @Test
+    void ignoresStatementsOutsideRequests() {
+        inspector.inspect("select 1");
+
+        assertThat(RequestMetrics.current()).isNull();
+        assertThat(meterRegistry.getMeters()).isEmpty();
+    }
+}
@@ -0,0 +1,253 @@
+package com.FullStackExample.apiFullStackExample.repository;
+
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Query plan regression suite: every BookRepository query runs against a seeded catalog, the statements it
+// sends are recorded with their parameters and each one is explained on the same connection. A sequential
+// scan of a table that grows with the catalog fails the test, as does a sort under keyset pagination.
+// The seed rows and their planner statistics are rolled back with the test transaction
+@SpringBootTest(properties = "books.search.in-memory.enabled=false")
+@Transactional
+class BookRepositoryQueryPlanTests {
+
+    private static final int BOOKS = 50_000;
+
+    // Tables that do not grow with the catalog: catalog_state has a single row, catalog_version_slot 16 and
+    // book_facet_count one per distinct category, author and year, so the planner may read them in full and
+    // sort them when it is cheaper
+    private static final Set<String> SMALL_TABLES = Set.of("catalog_state", "catalog_version_slot", "book_facet_count");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    // 200 categories, 225 years and 5,000 authors spread over every page, as books arrive in any order.
+    // Negative ids never collide with the sequence
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO book (id, title, author, publication_year, category, version) " +
+                "SELECT -g, 'Plan title ' || g, 'Plan author ' || (g % 5000), 1800 + g % 225, " +
+                "'Plan category ' || (g % 200), 0 FROM generate_series(1, ?) g", BOOKS);
+        jdbcTemplate.execute("ANALYZE book");
+        jdbcTemplate.execute("ANALYZE book_facet_count");
+    }
+
+    @Test
+    void everyQueryUsesAnIndex() {
+        // All but findAllBooks, streamAllOrderById and an unfiltered forEachMatching, which read every book: a sequential scan is their right plan
+        Map<String, List<String>> problems = new TreeMap<>();
+
+        check(problems, "findBookById", false, () -> bookRepository.findBookById(-4242L));
+        check(problems, "findPageAfterId", true, () -> bookRepository.findPageAfterId(-25_000L, Limit.of(50)));
+        check(problems, "findByTitleContainingIgnoreCase", false,
+                () -> bookRepository.findByTitleContainingIgnoreCase("title 4242"));
+        check(problems, "findByAuthorContainingIgnoreCase", false,
+                () -> bookRepository.findByAuthorContainingIgnoreCase("author 4242"));
+        check(problems, "findByCategory", false, () -> bookRepository.findByCategory("Plan category 42"));
+        check(problems, "findByPublicationYear", false, () -> bookRepository.findByPublicationYear(1942));
+        check(problems, "findByPublicationYearBetween", false,
+                () -> bookRepository.findByPublicationYearBetween(1942, 1943));
+        check(problems, "search(title)", false,
+                () -> bookRepository.search(criteria("title 4242", null, null, null, null, null), Limit.of(100)));
+        check(problems, "search(author)", false,
+                () -> bookRepository.search(criteria(null, "author 4242", null, null, null, null), Limit.of(100)));
+        check(problems, "search(title, author)", false,
+                () -> bookRepository.search(criteria("title 4242", "author 4242", null, null, null, null),
+                        Limit.of(100)));
+        check(problems, "search(category)", false,
+                () -> bookRepository.search(criteria(null, null, "Plan category 42", null, null, null), Limit.of(100)));
+        check(problems, "search(category, year)", false,
+                () -> bookRepository.search(criteria(null, null, "Plan category 42", 1842, null, null), Limit.of(100)));
+        check(problems, "search(category, year range)", false,
+                () -> bookRepository.search(criteria(null, null, "Plan category 42", null, 1840, 1850), Limit.of(100)));
+        check(problems, "search(year)", false,
+                () -> bookRepository.search(criteria(null, null, null, 1942, null, null), Limit.of(100)));
+        check(problems, "search(year range)", false,
+                () -> bookRepository.search(criteria(null, null, null, null, 1942, 1943), Limit.of(100)));
+        check(problems, "search()", true,
+                () -> bookRepository.search(criteria(null, null, null, null, null, null), Limit.of(100)));
+        check(problems, "forEachMatching(category)", false,
+                () -> bookRepository.forEachMatching(criteria(null, null, "Plan category 42", null, null, null), 100,
+                        book -> { }));
+        check(problems, "findTitleAuthorPairs", false,
+                () -> bookRepository.findTitleAuthorPairs(List.of("Plan title 7", "Plan title 8"),
+                        List.of("Plan author 7", "Plan author 8")));
+        check(problems, "updateReturningPrevious", false,
+                () -> bookRepository.updateReturningPrevious(-42L, "Plan title 42", "Plan author 42", 1842,
+                        "Plan category 42", BookRepository.ANY_VERSION));
+        check(problems, "updateAllReturningPrevious", false,
+                () -> bookRepository.updateAllReturningPrevious(new Long[] {-44L, -45L},
+                        new String[] {"Plan title 44", "Plan title 45"}, new String[] {"Plan author 44", "Plan author 45"},
+                        new Integer[] {1844, null}, new String[] {"Plan category 44", null},
+                        new Long[] {BookRepository.ANY_VERSION, 0L}));
+        check(problems, "deleteBookById", false, () -> bookRepository.deleteBookById(-43L));
+        check(problems, "deleteAllReturningIds", false,
+                () -> bookRepository.deleteAllReturningIds(new Long[] {-46L, -47L}));
+        check(problems, "findBooksByIds", false, () -> bookRepository.findBooksByIds(List.of(-48L, -49L, -50L)));
+        check(problems, "findExistingIds", false, () -> bookRepository.findExistingIds(List.of(-48L, -49L)));
+        check(problems, "findCatalogVersion", false, () -> bookRepository.findCatalogVersion());
+        check(problems, "findFacetCounts", false, () -> bookRepository.findFacetCounts(10));
+        check(problems, "findAllCategories", false, () -> bookRepository.findAllCategories());
+        check(problems, "findAllAuthors", false, () -> bookRepository.findAllAuthors());
+
+        assertThat(problems).as("Queries with a sequential scan or a sort that an index should provide").isEmpty();
+    }
+
+    private static BookSearchCriteria criteria(String title, String author, String category, Integer publicationYear,
+                                               Integer startYear, Integer endYear) {
+        return new BookSearchCriteria(title, author, category, publicationYear, startYear, endYear);
+    }
+
+    private void check(Map<String, List<String>> problems, String query, boolean sortedByIndex, Runnable call) {
+        recorder.start();
+        call.run();
+        List<RecordedStatement> statements = recorder.stop();
+        assertThat(statements).as(query + " statements").isNotEmpty();
+        for (RecordedStatement statement : statements) {
+            JsonNode plan = explain(statement);
+            List<String> found = new ArrayList<>();
+            collectProblems(plan, sortedByIndex, found);
+            if (!found.isEmpty()) {
+                problems.put(query, List.of(found + " in " + plan.toPrettyString()));
+            }
+        }
+    }
+
+    private JsonNode explain(RecordedStatement statement) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+                for (Map.Entry<Method, Object[]> parameter : statement.parameters()) {
+                    parameter.getKey().invoke(explain, parameter.getValue());
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    return objectMapper.readTree(plan.getString(1)).get(0).get("Plan");
+                }
+            } catch (ReflectiveOperationException | IOException e) {
+                throw new IllegalStateException("Could not explain " + statement.sql(), e);
+            }
+        });
+    }
+
+    private static void collectProblems(JsonNode node, boolean sortedByIndex, List<String> found) {
+        String nodeType = node.path("Node Type").asText();
+        String relation = node.path("Relation Name").asText();
+        if (nodeType.equals("Seq Scan") && !SMALL_TABLES.contains(relation)) {
+            found.add("Seq Scan on " + relation);
+        }
+        if (sortedByIndex && nodeType.equals("Sort")) {
+            found.add("Sort");
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectProblems(child, sortedByIndex, found);
+        }
+    }
+
+    record RecordedStatement(String sql, List<Map.Entry<Method, Object[]>> parameters) {
+    }
+
+    // Wraps the application DataSource to record the prepared statements executed while recording,
+    // with the setXxx(index, value) calls that bound their parameters
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private volatile List<RecordedStatement> recorded;
+
+        void start() {
+            recorded = new CopyOnWriteArrayList<>();
+        }
+
+        List<RecordedStatement> stop() {
+            List<RecordedStatement> statements = recorded;
+            recorded = null;
+            return statements;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return proxy(DataSource.class, dataSource, (method, args, result) ->
+                    result instanceof Connection connection ? proxy(Connection.class, connection, this::statement) : result);
+        }
+
+        private Object statement(Method method, Object[] args, Object result) {
+            if (!(result instanceof PreparedStatement statement) || !method.getName().equals("prepareStatement")) {
+                return result;
+            }
+            String sql = (String) args[0];
+            List<Map.Entry<Method, Object[]>> parameters = new ArrayList<>();
+            return proxy(PreparedStatement.class, statement, (call, callArgs, callResult) -> {
+                if (call.getName().startsWith("set") && callArgs != null && callArgs.length >= 2
+                        && callArgs[0] instanceof Integer) {
+                    parameters.add(Map.entry(call, callArgs.clone()));
+                } else if (call.getName().startsWith("execute") && recorded != null) {
+                    recorded.add(new RecordedStatement(sql, List.copyOf(parameters)));
+                }
+                return callResult;
+            });
+        }
+
+        interface ResultWrapper {
+            Object wrap(Method method, Object[] args, Object result);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                try {
+                    return wrapper.wrap(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+
+    @TestConfiguration
+    static class RecorderConfig {
+
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exports read through the cursor on the test transaction's connection, so they see the uncommitted books
+@SpringBootTest(properties = "books.search.in-memory.enabled=false")
+@Transactional
+class BookExportServiceTests {
+
+    private static final String CATEGORY = "Export \"test\", category";
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookExportService bookExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsTheMatchingBooksAsCsvInIdOrder() throws Exception {
+        BookDTO first = create("Export, first", 1990);
+        BookDTO second = create("Export \"second\"", 2000);
+        create("Export third", 2010);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = bookExportService.exportCsv(new BookSearchCriteria(null, null, CATEGORY, null, null, 2000), output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo(BookExportService.CSV_HEADER);
+        assertThat(BookCsv.parseLine(lines.get(1)))
+                .containsExactly(first.getId().toString(), "Export, first", "Export author", "1990", CATEGORY, "0");
+        assertThat(BookCsv.parseLine(lines.get(2)))
+                .containsExactly(second.getId().toString(), "Export \"second\"", "Export author", "2000", CATEGORY, "0");
+    }
+
+    @Test
+    void exportsAnEmptyYearForABookWithNoYear() throws Exception {
+        BookDTO book = create("Export undated", null);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bookExportService.exportCsv(new BookSearchCriteria(null, null, CATEGORY, null, null, null), output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(BookCsv.parseLine(lines.get(1)))
+                .containsExactly(book.getId().toString(), "Export undated", "Export author", "", CATEGORY, "0");
+    }
+
+    @Test
+    void exportsOneJsonBookPerLine() throws Exception {
+        create("Export, first", 1990);
+        create("Export second", 2000);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = bookExportService.exportNdjson(new BookSearchCriteria(null, null, CATEGORY, null, null, null), output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+        assertThat(lines).extracting(line -> objectMapper.readValue(line, BookDTO.class).getTitle())
+                .containsExactly("Export, first", "Export second");
+    }
+
+    private BookDTO create(String title, Integer publicationYear) {
+        return bookService.createBook(new BookDTO(title, "Export author", publicationYear, CATEGORY));
+    }
+}
@@ -0,0 +1,157 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookReadCoalescerTests {
+
+    private static final int CALLERS = 50;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookReadCoalescer coalescer = new BookReadCoalescer(true, meterRegistry);
+
+    @Test
+    void identicalConcurrentCallsShareOneQuery() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.submit(() -> coalescer.execute("search", "Novel", () -> {
+                    queries.incrementAndGet();
+                    await(release);
+                    return "result";
+                })));
+            }
+            awaitJoined("search", CALLERS - 1);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("result");
+            }
+        }
+
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(coalescer.inFlight()).isZero();
+        assertThat(meterRegistry.get("books.coalescing.ratio").tag("operation", "search").gauge().value())
+                .isEqualTo((CALLERS - 1) / (double) CALLERS);
+        // A later call runs its own query
+        assertThat(coalescer.execute("search", "Novel", () -> "again")).isEqualTo("again");
+    }
+
+    @Test
+    void differentParametersAndOperationsRunSeparately() {
+        assertThat(coalescer.execute("search", "Novel", () -> coalescer.execute("search", "Poetry", () -> "poetry")))
+                .isEqualTo("poetry");
+        assertThat(coalescer.execute("by-id", 1L, () -> coalescer.execute("search", 1L, () -> "search")))
+                .isEqualTo("search");
+        assertThat(meterRegistry.get("books.coalescing.calls").tag("outcome", "joined").counters())
+                .allSatisfy(counter -> assertThat(counter.count()).isZero());
+    }
+
+    @Test
+    void callsAfterAWriteDoNotJoinAQueryStartedBeforeIt() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch afterStarted = new CountDownLatch(1);
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> before = callers.submit(() -> coalescer.execute("by-id", 7L, () -> {
+                await(release);
+                return "before the write";
+            }));
+            awaitInFlight(1);
+
+            coalescer.invalidate();
+            // Runs its own query and takes the old one's place: calls from now on join it
+            Future<String> after = callers.submit(() -> coalescer.execute("by-id", 7L, () -> {
+                afterStarted.countDown();
+                await(release);
+                return "after the write";
+            }));
+            await(afterStarted);
+            Future<String> joiner = callers.submit(() -> coalescer.execute("by-id", 7L, () -> "own query"));
+            awaitJoined("by-id", 1);
+
+            release.countDown();
+            assertThat(before.get(10, TimeUnit.SECONDS)).isEqualTo("before the write");
+            assertThat(after.get(10, TimeUnit.SECONDS)).isEqualTo("after the write");
+            assertThat(joiner.get(10, TimeUnit.SECONDS)).isEqualTo("after the write");
+        }
+    }
+
+    @Test
+    void failuresReachEveryWaitingCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 5; i++) {
+                results.add(callers.submit(() -> coalescer.execute("search", "broken", () -> {
+                    await(release);
+                    throw new IllegalArgumentException("Limit must be greater than 0");
+                })));
+            }
+            awaitJoined("search", 4);
+            release.countDown();
+        }
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(result::get).hasCauseInstanceOf(IllegalArgumentException.class)
+                                           .hasMessageContaining("Limit must be greater than 0");
+        }
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void disabledCoalescerRunsEveryQuery() {
+        BookReadCoalescer disabled = new BookReadCoalescer(false, meterRegistry);
+        AtomicInteger queries = new AtomicInteger();
+
+        disabled.execute("search", "Novel", () -> disabled.execute("search", "Novel", queries::incrementAndGet));
+
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(meterRegistry.find("books.coalescing.calls").counters()).isEmpty();
+    }
+
+    private void awaitJoined(String operation, int joined) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (joinedCount(operation) < joined && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(joinedCount(operation)).isEqualTo(joined);
+    }
+
+    private double joinedCount(String operation) {
+        Counter counter = meterRegistry.find("books.coalescing.calls").tag("operation", operation)
+                                   .tag("outcome", "joined").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private void awaitInFlight(int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalescer.inFlight() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(coalescer.inFlight()).isEqualTo(calls);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
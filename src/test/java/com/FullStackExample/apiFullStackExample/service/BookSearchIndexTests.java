@@ -0,0 +1,197 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookFacetsDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookSearchCriteria;
+import com.FullStackExample.apiFullStackExample.dto.BookSuggestionDTO;
+import com.FullStackExample.apiFullStackExample.dto.FacetCountDTO;
+import com.FullStackExample.apiFullStackExample.dto.YearBucketCountDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BookSearchIndexTests {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex(true);
+        index.load(new BookDTO(1L, "Don Quixote", "Miguel de Cervantes", 1605, "Novel"));
+        index.load(new BookDTO(2L, "One Hundred Years of Solitude", "Gabriel García Márquez", 1967, "Novel"));
+        index.load(new BookDTO(3L, "Twenty Love Poems", "Pablo Neruda", 1924, "Poetry"));
+        index.markReady();
+    }
+
+    @Test
+    void matchesWordPrefixesIgnoringCaseAndAccents() {
+        assertThat(ids(index.search(criteria("quix", null, null, null), 100))).containsExactly(1L);
+        assertThat(ids(index.search(criteria(null, "garcia marq", null, null), 100))).containsExactly(2L);
+        assertThat(ids(index.search(criteria("years sol", null, null, null), 100))).containsExactly(2L);
+        assertThat(index.search(criteria("solitudes", null, null, null), 100)).isEmpty();
+    }
+
+    @Test
+    void combinesAllCriteriaWithAnd() {
+        assertThat(ids(index.search(criteria(null, null, "Novel", null), 100))).containsExactly(1L, 2L);
+        assertThat(ids(index.search(criteria("o", null, "Novel", 1967), 100))).containsExactly(2L);
+        assertThat(ids(index.search(new BookSearchCriteria(null, null, "Novel", null, 1600, 1930), 100)))
+                .containsExactly(1L);
+        assertThat(index.search(criteria(null, null, "Essay", null), 100)).isEmpty();
+    }
+
+    @Test
+    void appliesOpenYearRangesAndTheLimit() {
+        assertThat(ids(index.search(new BookSearchCriteria(null, null, null, null, 1900, null), 100)))
+                .containsExactly(2L, 3L);
+        assertThat(ids(index.search(new BookSearchCriteria(null, null, null, null, null, 1930), 100)))
+                .containsExactly(1L, 3L);
+        assertThat(index.search(new BookSearchCriteria(null, null, null, null, 1930, 1900), 100)).isEmpty();
+        assertThat(ids(index.search(criteria(null, null, null, null), 2))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void appliesUpdatesAndDeletesIncrementally() {
+        index.index(new BookDTO(1L, "The Ingenious Gentleman", "Miguel de Cervantes", 1605, "Classic"));
+        index.remove(3L);
+
+        assertThat(index.search(criteria("quixote", null, null, null), 100)).isEmpty();
+        assertThat(ids(index.search(criteria("ingenious", null, "Classic", null), 100))).containsExactly(1L);
+        assertThat(index.search(criteria(null, "neruda", null, null), 100)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsIdOrderForSparseAndOutOfOrderIds() {
+        index.index(new BookDTO(5_000_000_000L, "Large Id", "Author", 2000, "Novel"));
+        index.index(new BookDTO(50L, "Smaller Id", "Author", 2000, "Novel"));
+        index.remove(2L);
+
+        assertThat(ids(index.search(criteria(null, null, "Novel", null), 100))).containsExactly(1L, 50L, 5_000_000_000L);
+        assertThat(ids(index.search(criteria(null, "author", null, null), 1))).containsExactly(50L);
+        index.index(new BookDTO(50L, "Smaller Id", "Author", 2000, "Essay"));
+        assertThat(ids(index.search(criteria(null, null, "Novel", null), 100))).containsExactly(1L, 5_000_000_000L);
+    }
+
+    @Test
+    void initialLoadDoesNotOverwriteConcurrentWrites() {
+        BookSearchIndex loading = new BookSearchIndex(true);
+        loading.index(new BookDTO(7L, "New Title", "Author", 2000, "Novel"));
+        loading.remove(8L);
+        loading.load(new BookDTO(7L, "Old Title", "Author", 2000, "Novel"));
+        loading.load(new BookDTO(8L, "Deleted Book", "Author", 2000, "Novel"));
+        loading.markReady();
+
+        assertThat(ids(loading.search(criteria(null, "author", null, null), 100))).containsExactly(7L);
+        assertThat(loading.search(criteria("old", null, null, null), 100)).isEmpty();
+    }
+
+    @Test
+    void ignoresWritesThatArriveAfterANewerVersionOrTheDelete() {
+        index.index(new BookDTO(4L, "Second Edition", "Author", 2000, "Novel", 2L));
+        index.index(new BookDTO(4L, "First Edition", "Author", 2000, "Novel", 1L));
+        index.load(new BookDTO(4L, "Original", "Author", 2000, "Novel", 0L));
+        index.remove(5L);
+        index.index(new BookDTO(5L, "Deleted", "Author", 2000, "Novel", 3L));
+
+        assertThat(index.search(criteria(null, "author", null, null), 100))
+                .extracting(BookDTO::getTitle)
+                .containsExactly("Second Edition");
+        assertThat(texts(index.suggest("dele", null, 10))).isEmpty();
+        BookFacetCounts counts = new BookFacetCounts();
+        index.countFacets(criteria(null, "author", null, null), counts);
+        assertThat(counts.toDTO(100, 10).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void countsFacetsOfMatchingBooksInYearBuckets() {
+        BookFacetCounts counts = new BookFacetCounts();
+        index.countFacets(criteria(null, null, "Novel", null), counts);
+        BookFacetsDTO facets = counts.toDTO(100, 10);
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getCategories()).extracting(FacetCountDTO::getValue, FacetCountDTO::getCount)
+                .containsExactly(tuple("Novel", 2L));
+        assertThat(facets.getAuthors()).extracting(FacetCountDTO::getValue)
+                .containsExactly("Gabriel García Márquez", "Miguel de Cervantes");
+        assertThat(facets.getYears()).extracting(YearBucketCountDTO::getStartYear, YearBucketCountDTO::getEndYear,
+                        YearBucketCountDTO::getCount)
+                .containsExactly(tuple(1600, 1699, 1L), tuple(1900, 1999, 1L));
+    }
+
+    @Test
+    void suggestsValuesWithAWordStartingWithTheQueryMostBooksFirst() {
+        BookSearchIndex writers = new BookSearchIndex(true);
+        long id = 1;
+        for (int books = 1; books <= 20; books++) {
+            for (int i = 0; i < books; i++) {
+                writers.load(new BookDTO(id, "Book " + id, "Writer " + books, 2000, "Novel"));
+                id++;
+            }
+        }
+        writers.markReady();
+
+        assertThat(writers.suggest("writ", BookSearchIndex.AUTHOR, 3))
+                .extracting(BookSuggestionDTO::getText, BookSuggestionDTO::getCount)
+                .containsExactly(tuple("Writer 20", 20L), tuple("Writer 19", 19L), tuple("Writer 18", 18L));
+        assertThat(texts(index.suggest("quix", BookSearchIndex.TITLE, 10))).containsExactly("Don Quixote");
+        assertThat(texts(index.suggest("SOLIT", null, 10))).containsExactly("One Hundred Years of Solitude");
+        assertThat(texts(index.suggest("garcia m", null, 10))).containsExactly("Gabriel García Márquez");
+        assertThat(index.suggest("quix", BookSearchIndex.AUTHOR, 10)).isEmpty();
+        assertThat(index.suggest(" ", null, 10)).isEmpty();
+    }
+
+    @Test
+    void suggestsValuesWithinOneTypoAfterExactMatches() {
+        index.index(new BookDTO(4L, "Lope de Vega Plays", "Lope de Vega", 1609, "Drama"));
+
+        assertThat(index.suggest("love", BookSearchIndex.TITLE, 10))
+                .extracting(BookSuggestionDTO::getText, BookSuggestionDTO::isFuzzy)
+                .containsExactly(tuple("Twenty Love Poems", false), tuple("Lope de Vega Plays", true));
+        assertThat(texts(index.suggest("qiuxote", null, 10))).containsExactly("Don Quixote");
+        assertThat(texts(index.suggest("qixote", null, 10))).containsExactly("Don Quixote");
+        assertThat(texts(index.suggest("quixotte", null, 10))).containsExactly("Don Quixote");
+        assertThat(texts(index.suggest("nerida", null, 10))).containsExactly("Pablo Neruda");
+        // Too short for a typo: "qu" would otherwise match every value with a word starting with q or u
+        assertThat(index.suggest("qi", null, 10)).isEmpty();
+        assertThat(index.suggest("qxiote", null, 10)).isEmpty();
+    }
+
+    @Test
+    void keepsSuggestionsUpToDateWithWrites() {
+        index.index(new BookDTO(4L, "Don Juan", "Miguel de Cervantes", 1620, "Novel"));
+        assertThat(index.suggest("miguel", null, 10))
+                .extracting(BookSuggestionDTO::getText, BookSuggestionDTO::getCount)
+                .containsExactly(tuple("Miguel de Cervantes", 2L));
+        // "on" is one letter away from "don"
+        assertThat(index.suggest("don", BookSearchIndex.TITLE, 10))
+                .extracting(BookSuggestionDTO::getText, BookSuggestionDTO::isFuzzy)
+                .containsExactly(tuple("Don Juan", false), tuple("Don Quixote", false),
+                        tuple("One Hundred Years of Solitude", true));
+
+        index.index(new BookDTO(4L, "Don Juan", "Lord Byron", 1819, "Poetry"));
+        index.remove(1L);
+
+        assertThat(index.suggest("miguel", null, 10)).isEmpty();
+        assertThat(texts(index.suggest("byr", null, 10))).containsExactly("Lord Byron");
+        assertThat(texts(index.suggest("don ", BookSearchIndex.TITLE, 1))).containsExactly("Don Juan");
+        assertThat(texts(index.suggest("don j", BookSearchIndex.TITLE, 10))).containsExactly("Don Juan");
+        assertThat(index.suggest("quixote", null, 10)).isEmpty();
+    }
+
+    private static BookSearchCriteria criteria(String title, String author, String category, Integer year) {
+        return new BookSearchCriteria(title, author, category, year, null, null);
+    }
+
+    private static List<String> texts(List<BookSuggestionDTO> suggestions) {
+        return suggestions.stream().map(BookSuggestionDTO::getText).toList();
+    }
+
+    private static List<Long> ids(List<BookDTO> books) {
+        return books.stream().map(BookDTO::getId).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookBatchGetResultDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookBatchResultDTO;
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.exception.DuplicateBookException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Batch reads and writes against the database; every test rolls back
+@SpringBootTest(properties = "books.search.in-memory.enabled=false")
+@Transactional
+class BookServiceBatchTests {
+
+    private static final long MISSING_ID = -1L;
+
+    @Autowired
+    private BookService bookService;
+
+    @Test
+    void getsBooksInRequestOrderAndReportsMissingIds() {
+        BookDTO first = create("Batch first");
+        BookDTO second = create("Batch second");
+
+        BookBatchGetResultDTO result = bookService.getBooksByIds(
+                List.of(second.getId(), MISSING_ID, first.getId(), second.getId()));
+
+        assertThat(result.getBooks()).extracting(BookDTO::getTitle).containsExactly("Batch second", "Batch first");
+        assertThat(result.getMissingIds()).containsExactly(MISSING_ID);
+    }
+
+    @Test
+    void updatesEachBookOnItsOwnMerits() {
+        BookDTO fresh = create("Batch fresh");
+        BookDTO stale = create("Batch stale");
+
+        BookBatchResultDTO result = bookService.updateBooks(List.of(
+                new BookDTO(fresh.getId(), "Batch fresh (2nd edition)", "Batch author", 2001, "Batch", 0L),
+                new BookDTO(stale.getId(), "Batch stale (2nd edition)", "Batch author", 2001, "Batch", 7L),
+                new BookDTO(MISSING_ID, "Batch missing", "Batch author", 2001, "Batch")));
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getResults()).extracting(BookBatchResultDTO.Item::getStatus)
+                .containsExactly(BookBatchResultDTO.UPDATED, BookBatchResultDTO.STALE_VERSION,
+                        BookBatchResultDTO.NOT_FOUND);
+        assertThat(result.getResults().get(0).getBook().getVersion()).isEqualTo(1L);
+        assertThat(bookService.getBooksByIds(List.of(fresh.getId(), stale.getId())).getBooks())
+                .extracting(BookDTO::getTitle)
+                .containsExactly("Batch fresh (2nd edition)", "Batch stale");
+    }
+
+    @Test
+    void rejectsTheWholeBatchOnADuplicateTitleAndAuthor() {
+        BookDTO first = create("Batch one");
+        BookDTO second = create("Batch two");
+
+        assertThatThrownBy(() -> bookService.updateBooks(List.of(
+                new BookDTO(first.getId(), "Batch one (revised)", "Batch author", 2000, "Batch"),
+                new BookDTO(second.getId(), "Batch one (revised)", "Batch author", 2000, "Batch"))))
+                .isInstanceOf(DuplicateBookException.class);
+    }
+
+    @Test
+    void deletesTheBooksFoundAndReportsTheOthers() {
+        BookDTO book = create("Batch deleted");
+
+        BookBatchResultDTO result = bookService.deleteBooks(List.of(book.getId(), MISSING_ID));
+
+        assertThat(result.getResults()).extracting(BookBatchResultDTO.Item::getStatus)
+                .containsExactly(BookBatchResultDTO.DELETED, BookBatchResultDTO.NOT_FOUND);
+        assertThat(bookService.getBooksByIds(List.of(book.getId())).getMissingIds()).containsExactly(book.getId());
+    }
+
+    @Test
+    void createIgnoresAClientSuppliedId() {
+        BookDTO created = bookService.createBook(new BookDTO(MISSING_ID, "Batch with id", "Batch author", 2000, "Batch"));
+
+        assertThat(created.getId()).isNotEqualTo(MISSING_ID);
+        assertThat(created.getVersion()).isZero();
+    }
+
+    private BookDTO create(String title) {
+        return bookService.createBook(new BookDTO(title, "Batch author", 2000, "Batch"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.FullStackExample.apiFullStackExample.service;
+
+import com.FullStackExample.apiFullStackExample.dto.BookDTO;
+import com.FullStackExample.apiFullStackExample.exception.WriteQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookWriteQueueTests {
+
+    @Test
+    void commitsWritesQueuedDuringACommitAsOneGroup() throws Exception {
+        CountDownLatch firstCommitStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommit = new CountDownLatch(1);
+        List<Integer> groupSizes = new CopyOnWriteArrayList<>();
+        BookWriteQueue queue = new BookWriteQueue(100, 10, Duration.ofSeconds(1), group -> {
+            groupSizes.add(group.size());
+            firstCommitStarted.countDown();
+            await(releaseFirstCommit);
+            group.forEach(write -> write.complete(write.getPayload()));
+        }, new SimpleMeterRegistry());
+        queue.start();
+
+        BookWrite first = queue.submit(BookWrite.create(book("First")));
+        firstCommitStarted.await();
+        List<BookWrite> queued = List.of(queue.submit(BookWrite.create(book("Second"))),
+                queue.submit(BookWrite.create(book("Third"))));
+        assertThat(queued.get(0).getStatus()).isEqualTo(BookWrite.Status.PENDING);
+        releaseFirstCommit.countDown();
+
+        assertThat(first.await().getTitle()).isEqualTo("First");
+        assertThat(queued.get(1).await().getTitle()).isEqualTo("Third");
+        assertThat(groupSizes).containsExactly(1, 2);
+        assertThat(queue.find(queued.get(0).getId())).get()
+                .extracting(BookWrite::getStatus).isEqualTo(BookWrite.Status.COMMITTED);
+        queue.stop(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void rejectsWritesWhenTheQueueStaysFull() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BookWriteQueue queue = new BookWriteQueue(1, 10, Duration.ofMillis(50), group -> {
+            taken.countDown();
+            await(release);
+            group.forEach(write -> write.fail(new RuntimeException("Book not found with id: 1")));
+        }, new SimpleMeterRegistry());
+        queue.start();
+
+        queue.submit(BookWrite.delete(1L));
+        // Once the writer holds the first write, the second one fills the queue
+        taken.await();
+        BookWrite queued = queue.submit(BookWrite.delete(2L));
+        assertThatThrownBy(() -> queue.submit(BookWrite.delete(3L))).isInstanceOf(WriteQueueFullException.class);
+
+        release.countDown();
+        assertThatThrownBy(queued::await).hasMessageContaining("not found");
+        assertThat(queued.getStatus()).isEqualTo(BookWrite.Status.FAILED);
+        queue.stop(Duration.ofSeconds(1));
+    }
+
+    private static BookDTO book(String title) {
+        return new BookDTO(title, "Author", 2000, "Novel");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipResponseFilterTests {
+
+    private final GzipResponseFilter filter = new GzipResponseFilter(100, 1, List.of(MediaType.APPLICATION_JSON));
+
+    @Test
+    void compressesLargeBodiesAndGivesThemTheirOwnETag() throws Exception {
+        String body = "[" + "{\"title\":\"Don Quixote\"},".repeat(50) + "{}]";
+        MockHttpServletResponse response = filter(gzipRequest(), body, MediaType.APPLICATION_JSON_VALUE);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"7-gzip\"");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(response.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(body);
+    }
+
+    @Test
+    void leavesSmallBodiesOtherTypesAndOtherClientsUncompressed() throws Exception {
+        String large = "x".repeat(500);
+        MockHttpServletResponse small = filter(gzipRequest(), "[]", MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletResponse html = filter(gzipRequest(), large, MediaType.TEXT_HTML_VALUE);
+        MockHttpServletResponse identity = filter(new MockHttpServletRequest(), large, MediaType.APPLICATION_JSON_VALUE);
+
+        for (MockHttpServletResponse response : List.of(small, html, identity)) {
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"7\"");
+        }
+        assertThat(small.getContentAsString()).isEqualTo("[]");
+        assertThat(small.getContentLength()).isEqualTo(2);
+        assertThat(html.getContentAsString()).isEqualTo(large);
+        assertThat(identity.getContentAsString()).isEqualTo(large);
+    }
+
+    @Test
+    void honoursQualityValuesInAcceptEncoding() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0");
+        assertThat(GzipResponseFilter.acceptsGzip(request)).isFalse();
+
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, GZIP;q=0.8");
+        assertThat(GzipResponseFilter.acceptsGzip(request)).isTrue();
+    }
+
+    @Test
+    void sendsEveryFlushOfALiveStreamRightAway() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        List<String> sentAtFlush = new ArrayList<>();
+        filter.doFilter(gzipRequest(), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res)
+                    throws IOException {
+                GzipResponseFilter.flushEagerly(res);
+                res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                res.getOutputStream().write("{\"seq\":1}\n".getBytes(StandardCharsets.UTF_8));
+                res.getOutputStream().flush();
+                sentAtFlush.add(gunzipPartial(response.getContentAsByteArray()));
+            }
+        }));
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(sentAtFlush).containsExactly("{\"seq\":1}\n");
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo("{\"seq\":1}\n");
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, String body, String contentType)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res)
+                    throws IOException {
+                res.setContentType(contentType);
+                res.setHeader(HttpHeaders.ETAG, "\"7\"");
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                // Written in pieces, as message converters do
+                for (int i = 0; i < bytes.length; i += 37) {
+                    res.getOutputStream().write(bytes, i, Math.min(37, bytes.length - i));
+                }
+                res.getOutputStream().flush();
+            }
+        }));
+        return response;
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        return request;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // What a client can decompress of a gzip stream that is still open
+    private static String gunzipPartial(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            int b;
+            while ((b = input.read()) != -1) {
+                out.write(b);
+            }
+        } catch (EOFException e) {
+            // No gzip trailer yet
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,169 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import com.FullStackExample.apiFullStackExample.config.LoadSheddingConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadSheddingFilterTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger threadsAwaitingConnection = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void givesEachClientItsOwnBucketRefilledOverTime() throws Exception {
+        LoadSheddingFilter filter = filter(new ClientRateLimiter(2, 3, 100, clock::get), concurrencyLimiter(10));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(filter(filter, "/api/books/search", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse limited = filter(filter, "/api/books/search", "10.0.0.1");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(filter(filter, "/api/books/search", "10.0.0.2").getStatus()).isEqualTo(200);
+        // Other paths are not limited
+        assertThat(filter(filter, "/api/books/page", "10.0.0.1").getStatus()).isEqualTo(200);
+
+        // One token every 500ms
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(filter(filter, "/api/books/search", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(filter(filter, "/api/books/search", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.counter("books.load-shedding.rejected", "reason", "rate-limit").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void keepsABoundedNumberOfBucketsHoweverManyClientKeysAreSent() throws Exception {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(1, 3, 100, clock::get);
+        LoadSheddingFilter filter = filter(rateLimiter, concurrencyLimiter(10));
+        for (int i = 0; i < 4; i++) {
+            filter(filter, "/api/books/search", "10.0.0.1");
+        }
+
+        // One request each from many addresses (as made-up keys would be): past 100 buckets the new ones share
+        // the overflow bucket, and the limited client keeps its own
+        int limited = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter(filter, "/api/books/search", "10.1." + (i / 256) + "." + (i % 256)).getStatus() == 429) {
+                limited++;
+            }
+        }
+        assertThat(rateLimiter.trackedClients()).isEqualTo(100);
+        assertThat(limited).isEqualTo(1000 - 99 - 3);
+        assertThat(filter(filter, "/api/books/search", "10.0.0.1").getStatus()).isEqualTo(429);
+
+        // Once the buckets are full again the sweep drops them and new clients get their own
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        filter(filter, "/api/books/search", "10.2.0.1");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rateLimiter.trackedClients() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(rateLimiter.trackedClients()).isZero();
+        assertThat(filter(filter, "/api/books/search", "10.2.0.2").getStatus()).isEqualTo(200);
+        assertThat(rateLimiter.trackedClients()).isEqualTo(1);
+    }
+
+    @Test
+    void rateLimitsOnlyWhenEnabledAndTheClientAddressIsKnown() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withInitializer(context -> context.getBeanFactory()
+                                                   .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withUserConfiguration(LoadSheddingConfig.class);
+
+        runner.run(context -> assertThat(context).hasSingleBean(LoadSheddingFilter.class));
+        runner.withPropertyValues("books.load-shedding.rate-limit.enabled=true")
+              .run(context -> assertThat(context).getFailure().rootCause()
+                                                 .hasMessageContaining("server.forward-headers-strategy"));
+        runner.withPropertyValues("books.load-shedding.rate-limit.enabled=true", "server.forward-headers-strategy=native")
+              .run(context -> assertThat(context).hasSingleBean(LoadSheddingFilter.class));
+    }
+
+    @Test
+    void shedsRequestsPastTheConcurrencyLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter(2);
+        LoadSheddingFilter filter = filter(new ClientRateLimiter(1000, 1000, 100, clock::get), limiter);
+
+        // Two requests running: the next one is shed
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        MockHttpServletResponse shed = filter(filter, "/api/books/search", "10.0.0.1");
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        limiter.release(0);
+        assertThat(filter(filter, "/api/books/search", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(meterRegistry.counter("books.load-shedding.rejected", "reason", "concurrency-limit").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void adaptsTheLimitToLatencyAndPoolSaturation() {
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter(20);
+        long target = TimeUnit.MILLISECONDS.toNanos(100);
+
+        // Slow requests cut the limit by 10%, once per target latency
+        acquireAndRelease(limiter, 2 * target);
+        acquireAndRelease(limiter, 2 * target);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+        clock.addAndGet(target);
+        threadsAwaitingConnection.set(3);
+        acquireAndRelease(limiter, 0);
+        assertThat(limiter.getLimit()).isEqualTo(16);
+
+        // Fast requests raise it again while it is at least half used
+        threadsAwaitingConnection.set(0);
+        acquireAndRelease(limiter, 0);
+        assertThat(limiter.getLimit()).isEqualTo(16);
+        for (int i = 0; i < 8; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        acquireAndRelease(limiter, 0);
+        assertThat(limiter.getLimit()).isEqualTo(17);
+    }
+
+    private static void acquireAndRelease(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(latencyNanos);
+    }
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 1, 100, TimeUnit.MILLISECONDS.toNanos(100),
+                threadsAwaitingConnection::get, clock::get);
+    }
+
+    private LoadSheddingFilter filter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        return new LoadSheddingFilter(rateLimiter, concurrencyLimiter, List.of("/api/books/search"), null,
+                Duration.ofSeconds(1), meterRegistry);
+    }
+
+    private static MockHttpServletResponse filter(LoadSheddingFilter filter, String path, String client)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, client), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(client);
+        return request;
+    }
+}
@@ -0,0 +1,42 @@
+package com.FullStackExample.apiFullStackExample.web;
+
+import com.FullStackExample.apiFullStackExample.datasource.ReadRouting;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadRoutingFilterTests {
+
+    private final ReadRoutingFilter filter = new ReadRoutingFilter(Duration.ofSeconds(5), List.of("/api/books/batch-get"));
+
+    @Test
+    void pinsWritesAndRecentWritersButNotReadOnlyPosts() throws Exception {
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        assertThat(pinned(new MockHttpServletRequest("POST", "/api/books"), write)).isTrue();
+        Cookie lastWrite = write.getCookie(ReadRoutingFilter.LAST_WRITE_COOKIE);
+        assertThat(lastWrite).isNotNull();
+
+        MockHttpServletRequest recentWriter = new MockHttpServletRequest("GET", "/api/books/1");
+        recentWriter.setCookies(lastWrite);
+        assertThat(pinned(recentWriter, new MockHttpServletResponse())).isTrue();
+
+        MockHttpServletResponse batchGet = new MockHttpServletResponse();
+        assertThat(pinned(new MockHttpServletRequest("POST", "/api/books/batch-get"), batchGet)).isFalse();
+        assertThat(batchGet.getCookie(ReadRoutingFilter.LAST_WRITE_COOKIE)).isNull();
+        assertThat(pinned(new MockHttpServletRequest("GET", "/api/books/1"), new MockHttpServletResponse())).isFalse();
+    }
+
+    // Whether the request was handled pinned to the primary
+    private boolean pinned(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicBoolean pinned = new AtomicBoolean();
+        filter.doFilter(request, response, (req, res) -> pinned.set(ReadRouting.isPinnedToPrimary()));
+        return pinned.get();
+    }
+}